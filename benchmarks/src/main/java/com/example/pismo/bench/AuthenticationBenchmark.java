@@ -0,0 +1,59 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.config.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating HTTP Basic credentials: a full BCrypt check (the provider Spring
+ * Security configures by default) against a repeat served by {@link CachingAuthenticationProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    AuthenticationProvider bcrypt;
+    AuthenticationProvider cached;
+
+    @Setup
+    public void setup() {
+        // same encoder strength as SecurityConfig
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("api").password(encoder.encode("pismo123")).roles("USER").build());
+
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(users);
+        dao.setPasswordEncoder(encoder);
+        bcrypt = dao;
+        cached = new CachingAuthenticationProvider(dao, users, Duration.ofMinutes(5), 10_000);
+        cached.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication bcryptPerRequest() {
+        return bcrypt.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication cachedRepeat() {
+        return cached.authenticate(credentials());
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("api", "pismo123");
+    }
+}
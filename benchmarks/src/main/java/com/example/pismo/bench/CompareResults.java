@@ -0,0 +1,63 @@
+package com.example.pismo.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 when any benchmark present in both got
+ * slower than the threshold. Direction comes from the score unit: ops/time is better when higher,
+ * time/op when lower.
+ *
+ * Usage: {@code CompareResults <baseline.json> <current.json> [threshold-percent, default 10]}
+ */
+public final class CompareResults {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            double old = before.path("primaryMetric").path("score").asDouble();
+            double now = entry.getValue().path("primaryMetric").path("score").asDouble();
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double change = (now - old) / old * 100.0;
+            double worse = higherIsBetter ? -change : change;
+
+            String verdict = worse > threshold ? "REGRESSED" : worse < -threshold ? "IMPROVED" : "ok";
+            if (worse > threshold) regressions++;
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", verdict, entry.getKey(), old, now, unit, change);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    // key: benchmark name plus its @Param values, so each parameter combination is compared separately
+    private static Map<String, JsonNode> load(File file) throws Exception {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(p -> key.append(' ').append(p.getKey()).append('=')
+                    .append(p.getValue().asText()));
+            byKey.put(key.toString(), run);
+        }
+        return byKey;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.CentsConverter;
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * {@link com.example.pismo.entity.Transaction} as it was mapped before pooled sequence ids: an IDENTITY
+ * column, so Hibernate has to run each insert on its own to read the generated key back. Benchmark only;
+ * its table is created by the benchmark's context next to {@code transactions}.
+ */
+@Entity
+@Table(name = "transactions_identity")
+public class IdentityTransaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "transaction_id")
+    private Long id;
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+    @Column(name = "operation_type_id", nullable = false)
+    private Integer operationTypeId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private long amount;
+    @Column(name = "event_date", nullable = false)
+    private OffsetDateTime eventDate = OffsetDateTime.now();
+
+    protected IdentityTransaction() {
+    }
+
+    public IdentityTransaction(Account account, Integer operationTypeId, long amount) {
+        this.account = account;
+        this.operationTypeId = operationTypeId;
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.dto.AccountResponse;
+import com.example.pismo.dto.DtoJsonModule;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snake-case JSON encoding of the API records with the same {@link ObjectMapper} defaults Spring MVC
+ * uses, plus decoding of the request body of {@code POST /transactions}. {@code codec=databind} is plain
+ * record databinding, {@code codec=streaming} adds {@link DtoJsonModule} as the application does. Run with
+ * {@code -prof gc} for bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"databind", "streaming"})
+    String codec;
+
+    ObjectWriter transactionWriter;
+    ObjectWriter accountWriter;
+    ObjectReader requestReader;
+    TransactionResponse transaction;
+    AccountResponse account;
+    byte[] requestBody;
+
+    @Setup
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        if (codec.equals("streaming")) builder.modulesToInstall(new DtoJsonModule());
+        ObjectMapper mapper = builder.build();
+        transactionWriter = mapper.writerFor(TransactionResponse.class);
+        accountWriter = mapper.writerFor(AccountResponse.class);
+        requestReader = mapper.readerFor(TransactionRequest.class);
+        transaction = new TransactionResponse(987654L, 12345L, 1, new BigDecimal("-123.45"));
+        account = new AccountResponse(12345L, "12345678900", new BigDecimal("1000.00"));
+        requestBody = "{\"account_id\":12345,\"operation_type_id\":1,\"amount\":123.45}".getBytes();
+    }
+
+    @Benchmark
+    public byte[] writeTransactionResponse() throws Exception {
+        return transactionWriter.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] writeAccountResponse() throws Exception {
+        return accountWriter.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public TransactionRequest readTransactionRequest() throws Exception {
+        return requestReader.readValue(requestBody);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.PismoApplication;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the transaction instrumentation: {@code TransactionService.post} with the phase timers,
+ * Hibernate statistics and Prometheus histograms enabled vs. the same call with them switched off.
+ * Scores are microseconds per posted transaction; the gap between the two is the per-request overhead.
+ * Runs at the application's own log levels, so any per-request logging the instrumentation causes is counted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean instrumented;
+
+    ConfigurableApplicationContext context;
+    TransactionService txService;
+    TransactionRequest payment;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(PismoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-metrics;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "management.metrics.enable.pismo=" + instrumented,
+                        "spring.jpa.properties.hibernate.generate_statistics=" + instrumented)
+                .run();
+        txService = context.getBean(TransactionService.class);
+        Account account = context.getBean(AccountRepository.class)
+                .save(new Account("BENCH-" + System.nanoTime(), 100_000L));
+        // payments never hit the limit, so every invocation runs all four phases
+        payment = new TransactionRequest(account.getId(), 4, new BigDecimal("1.00"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse postTransaction() {
+        return txService.post(payment);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.PismoApplication;
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full Spring MVC round trip through MockMvc: security filter chain (Basic, served from the auth cache
+ * after the first call), request decoding, validation, service, JPA and response encoding. No sockets,
+ * so the gap to {@link TransactionPostBenchmark} is the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MvcRoundTripBenchmark {
+
+    ConfigurableApplicationContext context;
+    MockMvc mockMvc;
+    String authorization;
+    String paymentBody;
+    long accountId;
+
+    @Setup
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(PismoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench-mvc;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        String user = context.getEnvironment().getProperty("app.security.user", "api");
+        String password = context.getEnvironment().getProperty("app.security.password", "pismo123");
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((user + ':' + password).getBytes(StandardCharsets.UTF_8));
+        accountId = context.getBean(AccountRepository.class)
+                .save(new Account("BENCH-" + System.nanoTime(), 100_000L)).getId();
+        paymentBody = "{\"account_id\":" + accountId + ",\"operation_type_id\":4,\"amount\":1.00}";
+
+        // a misconfigured run would otherwise quietly benchmark 401s
+        int status = postTransaction().getResponse().getStatus();
+        if (status != 201) throw new IllegalStateException("POST /transactions returned " + status);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult postTransaction() throws Exception {
+        return mockMvc.perform(post("/transactions")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(paymentBody))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAccount() throws Exception {
+        return mockMvc.perform(get("/accounts/{id}", accountId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn();
+    }
+}
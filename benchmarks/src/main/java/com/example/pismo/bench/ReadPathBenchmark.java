@@ -0,0 +1,115 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.PismoApplication;
+import com.example.pismo.archive.TransactionPartitions;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.AccountView;
+import com.example.pismo.repository.TransactionRepository;
+import com.example.pismo.repository.TransactionView;
+import com.example.pismo.service.TransactionService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads through projection queries vs. loading entities, each in a read-only transaction like the services
+ * run them. The entity variants hydrate {@code Transaction}/{@code Account} (with the {@code Account} proxy)
+ * and register them in the persistence context. Run with {@code -prof gc} for allocation per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+    static final int PAGE_SIZE = 20;
+
+    ConfigurableApplicationContext context;
+    AccountRepository accountRepo;
+    TransactionRepository txRepo;
+    EntityManager em;
+    TransactionTemplate readOnly;
+    Long accountId;
+    Long transactionId;
+    // lower event_date bound of a default history read, as TransactionService applies it
+    OffsetDateTime from;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(PismoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench-read;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+                .run();
+        accountRepo = context.getBean(AccountRepository.class);
+        txRepo = context.getBean(TransactionRepository.class);
+        em = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        from = context.getBean(TransactionPartitions.class).recentFrom();
+
+        TransactionService txService = context.getBean(TransactionService.class);
+        accountId = accountRepo.save(new Account("BENCH-R-" + System.nanoTime(), 100_000_000L)).getId();
+        for (int i = 0; i < 200; i++) {
+            transactionId = txService.post(new TransactionRequest(accountId, 1, new BigDecimal("1.00"))).transactionId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction transactionByIdFind() {
+        return readOnly.execute(status -> txRepo.findById(transactionId).orElseThrow());
+    }
+
+    @Benchmark
+    public TransactionView transactionByIdProjection() {
+        return readOnly.execute(status -> txRepo.findViewById(transactionId).orElseThrow());
+    }
+
+    @Benchmark
+    public Account accountByIdFind() {
+        return readOnly.execute(status -> accountRepo.findById(accountId).orElseThrow());
+    }
+
+    @Benchmark
+    public AccountView accountByIdProjection() {
+        return readOnly.execute(status -> accountRepo.findViewById(accountId).orElseThrow());
+    }
+
+    @Benchmark
+    public List<Transaction> historyPageEntity() {
+        return readOnly.execute(status -> em.createQuery(
+                        "select t from Transaction t where t.account.id = :accountId and t.id < :beforeId"
+                                + " and t.eventDate >= :from order by t.id desc",
+                        Transaction.class)
+                .setParameter("accountId", accountId)
+                .setParameter("beforeId", Long.MAX_VALUE)
+                .setParameter("from", from)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<TransactionView> historyPageProjection() {
+        return readOnly.execute(status -> txRepo.findByAccountIdBefore(accountId, Long.MAX_VALUE, from,
+                PageRequest.of(0, PAGE_SIZE)).getContent());
+    }
+}
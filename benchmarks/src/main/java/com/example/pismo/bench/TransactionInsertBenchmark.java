@@ -0,0 +1,74 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.PismoApplication;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High-volume transaction writes through JPA against embedded H2. Scores are inserts per second.
+ * {@code ids=identity} writes {@link IdentityTransaction}, the former IDENTITY mapping, which Hibernate inserts
+ * one statement at a time whatever the batch size; {@code ids=pooled} writes {@link Transaction} with its pooled
+ * sequence ids, where {@code batchSize} decides how many inserts go in one JDBC batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionInsertBenchmark {
+    static final int ROWS = 1000;
+
+    @Param({"identity", "pooled"})
+    public String ids;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    ConfigurableApplicationContext context;
+    EntityManager entityManager;
+    TransactionTemplate txTemplate;
+    Account account;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(PismoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench-insert;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize)
+                .run();
+        entityManager = context.getBean(EntityManager.class);
+        txTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        account = context.getBean(AccountRepository.class)
+                .save(new Account("BENCH-" + System.nanoTime(), 100_000_000_000L));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertTransactions() {
+        boolean identity = "identity".equals(ids);
+        txTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(identity
+                        ? new IdentityTransaction(account, 1, -100L)
+                        : new Transaction(account, 1, -100L));
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.pismo.bench;
+
+import com.example.pismo.PismoApplication;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TransactionService.post} against embedded H2, without HTTP, security or JSON in the way.
+ * A purchase takes the conditional limit UPDATE, a payment the plain balance increment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionPostBenchmark {
+
+    ConfigurableApplicationContext context;
+    TransactionService txService;
+    TransactionRequest purchase;
+    TransactionRequest payment;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(PismoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench-post;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+                .run();
+        txService = context.getBean(TransactionService.class);
+        AccountRepository accountRepo = context.getBean(AccountRepository.class);
+        // limit large enough that purchases never run out during a run
+        Account buyer = accountRepo.save(new Account("BENCH-P-" + System.nanoTime(), 100_000_000_000L));
+        Account payer = accountRepo.save(new Account("BENCH-Q-" + System.nanoTime(), 100_000L));
+        purchase = new TransactionRequest(buyer.getId(), 1, new BigDecimal("1.00"));
+        payment = new TransactionRequest(payer.getId(), 4, new BigDecimal("1.00"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse purchase() {
+        return txService.post(purchase);
+    }
+
+    @Benchmark
+    public TransactionResponse payment() {
+        return txService.post(payment);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The money arithmetic done per posted transaction, in cents: the operation type lookup in the compiled
+ * {@link OperationTypeRules} table and sign normalisation, the limit check the batch path and the ledger run
+ * against a running balance, and {@link Account#addToBalance}. Also the one BigDecimal-to-cents conversion a
+ * request still pays at the API boundary. Run with {@code -prof gc} to see allocation per operation. Lives in
+ * the service package to reach the package-private helpers on {@link TransactionService} and
+ * {@link OperationTypeRules}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmountArithmeticBenchmark {
+
+    // fields, not constants, so the JIT cannot fold the arithmetic away
+    long amount = 12_345L;
+    long balance = -25_000L;
+    long creditLimit = 100_000L;
+    Integer opId = 1;
+    OperationTypeRules operationTypes;
+    TransactionRequest request = new TransactionRequest(1L, 1, new BigDecimal("123.45"));
+    Account account;
+
+    @Setup(Level.Trial)
+    public void setupRules() {
+        // compiled from rows directly; the repository is only used by reload()
+        operationTypes = new OperationTypeRules(null, null, 1023);
+        operationTypes.install(List.of(
+                new OperationType(1, "Normal Purchase", false, true, true),
+                new OperationType(4, "Payment", true, false, true)));
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        account = new Account("BENCH", creditLimit);
+    }
+
+    @Benchmark
+    public long normalizeAmountSign() {
+        return operationTypes.require(opId).signed(amount);
+    }
+
+    @Benchmark
+    public boolean limitCheck() {
+        OperationTypeRules.Rule rule = operationTypes.require(opId);
+        long signed = rule.signed(amount);
+        return !rule.limitChecked() || TransactionService.withinLimit(balance, creditLimit, signed);
+    }
+
+    @Benchmark
+    public long addToBalance() {
+        account.addToBalance(amount);
+        return account.getAvailableBalance();
+    }
+
+    @Benchmark
+    public long requestAmountInCents() {
+        return TransactionService.validateAmount(request);
+    }
+}
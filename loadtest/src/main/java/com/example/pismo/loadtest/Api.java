@@ -0,0 +1,96 @@
+package com.example.pismo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** HTTP access to one instance: request builders with Basic credentials, and the calls scenarios set up with. */
+final class Api {
+    static final Pattern ACCOUNT_ID = Pattern.compile("\"account_id\"\\s*:\\s*(\\d+)");
+
+    final HttpClient http;
+    final URI base;
+    final String authorization;
+
+    Api(URI base, String user, String password) {
+        this.base = base;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((user + ':' + password).getBytes(StandardCharsets.UTF_8));
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(base.resolve(pathAndQuery))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+    }
+
+    HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /** Creates {@code count} accounts with a limit no run can exhaust; returns their ids. */
+    long[] createAccounts(int count, String prefix) throws IOException, InterruptedException {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            String body = String.format("{\"document_number\":\"%s-%d-%d\",\"credit_limit\":1000000000}",
+                    prefix, System.nanoTime(), i);
+            HttpResponse<String> res = send(post("/accounts", body));
+            Matcher m = ACCOUNT_ID.matcher(res.body());
+            if (res.statusCode() != 201 || !m.find()) {
+                throw new IllegalStateException("Could not create account: " + res.statusCode() + " " + res.body());
+            }
+            ids[i] = Long.parseLong(m.group(1));
+        }
+        return ids;
+    }
+
+    /** Splits the account's balance over {@code stripes} stripe rows (see the server's {@code StripedBalances}). */
+    void stripe(long accountId, int stripes) throws IOException, InterruptedException {
+        HttpResponse<String> res = send(post("/actuator/balancestripes/" + accountId, "{\"stripes\":" + stripes + "}"));
+        if (res.statusCode() != 200) {
+            throw new IllegalStateException("Could not stripe account " + accountId + ": " + res.statusCode() + " "
+                    + res.body() + " (is app.balances.stripes.enabled=true on the server?)");
+        }
+    }
+
+    /** Posts {@code count} purchases of 0.01 to the account through {@code POST /transactions/batch}. */
+    void seedHistory(long accountId, int count) throws IOException, InterruptedException {
+        for (int done = 0; done < count; ) {
+            int n = Math.min(1000, count - done);
+            StringBuilder body = new StringBuilder(n * 64).append('[');
+            for (int i = 0; i < n; i++) {
+                if (i > 0) body.append(',');
+                body.append("{\"account_id\":").append(accountId).append(",\"operation_type_id\":1,\"amount\":0.01}");
+            }
+            HttpResponse<String> res = send(post("/transactions/batch", body.append(']').toString()));
+            if (res.statusCode() != 200) {
+                throw new IllegalStateException("Could not seed history: " + res.statusCode() + " " + res.body());
+            }
+            done += n;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.pismo.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A stored run to compare later runs against: the settings it ran with and its {@link Result#summary()}, as a
+ * properties file. A run regresses when its throughput falls, or its p50, p99 or error rate rises, by more than
+ * the tolerance; against a baseline without errors, any error is a regression. The other figures are printed
+ * for context only. A run with another scenario or concurrency is not compared at all, since its figures say
+ * nothing about a regression; a different duration is only warned about, as every figure is a rate or a
+ * percentile.
+ */
+final class Baseline {
+    private static final String[] SETTINGS = {"scenario", "concurrency", "duration"};
+    private static final String[] REQUIRED_SETTINGS = {"scenario", "concurrency"};
+
+    private Baseline() {
+    }
+
+    static void save(Path file, Result result) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("scenario", result.scenario());
+        props.setProperty("concurrency", Integer.toString(result.concurrency()));
+        props.setProperty("duration", result.duration().toString());
+        result.summary().forEach((key, value) -> props.setProperty(key, Double.toString(value)));
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        try (Writer out = Files.newBufferedWriter(file)) {
+            props.store(out, "pismo load test baseline");
+        }
+        System.out.printf("baseline saved to %s%n", file);
+    }
+
+    /**
+     * Prints the comparison; returns false when the run regressed beyond {@code tolerance} (0.20 = 20%), or ran
+     * with another scenario or concurrency than the baseline.
+     */
+    static boolean compare(Path file, Result result, double tolerance) throws IOException {
+        Properties base = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            base.load(in);
+        }
+        Properties current = new Properties();
+        current.setProperty("scenario", result.scenario());
+        current.setProperty("concurrency", Integer.toString(result.concurrency()));
+        current.setProperty("duration", result.duration().toString());
+        boolean comparable = true;
+        for (String setting : SETTINGS) {
+            if (!current.getProperty(setting).equals(base.getProperty(setting))) {
+                boolean required = List.of(REQUIRED_SETTINGS).contains(setting);
+                comparable &= !required;
+                System.out.printf("%s: baseline %s=%s, this run %s=%s%n", required ? "error" : "warning",
+                        setting, base.getProperty(setting), setting, current.getProperty(setting));
+            }
+        }
+        if (!comparable) {
+            System.out.printf("not compared with %s: record a baseline with the same settings%n", file);
+            return false;
+        }
+
+        boolean ok = true;
+        System.out.printf("compared with %s%n", file);
+        System.out.printf("%-12s %12s %12s %9s%n", "", "baseline", "this run", "change");
+        for (Map.Entry<String, Double> e : result.summary().entrySet()) {
+            String key = e.getKey();
+            double was = Double.parseDouble(base.getProperty(key, "NaN"));
+            double now = e.getValue();
+            double change = was == now ? 0 : was == 0 ? Double.NaN : (now - was) / was;
+            boolean regressed = switch (key) {
+                case "throughput" -> change < -tolerance;
+                case "p50", "p99" -> change > tolerance;
+                // a relative change from 0 is undefined, so any error against a clean baseline counts
+                case "error-rate" -> now > was * (1 + tolerance);
+                default -> false;
+            };
+            ok &= !regressed;
+            System.out.printf("%-12s %12.2f %12.2f %+8.1f%%%s%n", key, was, now, change * 100,
+                    regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%s (tolerance %.0f%%)%n", ok ? "within baseline" : "regressed", tolerance * 100);
+        return ok;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.pismo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The packaged application started as a child process for the length of a run, on its default in-memory H2
+ * database, so a run needs nothing but the jar. Its output goes to a log file next to the jar.
+ */
+final class LaunchedServer implements AutoCloseable {
+    private final Process process;
+    private final Path log;
+
+    private LaunchedServer(Process process, Path log) {
+        this.process = process;
+        this.log = log;
+    }
+
+    /**
+     * Starts {@code java [jvmArgs] -jar jar --server.port=port [appArgs]} with the JDK running the driver, and
+     * waits for {@code /actuator/health} to answer 200.
+     */
+    static LaunchedServer start(Path jar, int port, String jvmArgs, String appArgs, Duration timeout)
+            throws IOException, InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException(jar + " not found; build it with mvn package in the project root");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(split(jvmArgs));
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(split(appArgs));
+
+        Path log = jar.toAbsolutePath().normalize().resolveSibling("loadtest-server.log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        LaunchedServer server = new LaunchedServer(process, log);
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+        System.out.printf("started %s (pid %d), log in %s%n", jar.getFileName(), process.pid(), log);
+        try {
+            server.awaitHealthy(URI.create("http://localhost:" + port + "/actuator/health"), timeout);
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    private void awaitHealthy(URI health, Duration timeout) throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("server exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                HttpResponse<Void> res = http.send(HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(2)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (res.statusCode() == 200) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IOException("server not healthy within " + timeout + ", see " + log);
+    }
+
+    private static List<String> split(String args) {
+        return args == null || args.isBlank() ? List.of() : List.of(args.trim().split("\\s+"));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.pismo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load driver: {@code --concurrency} virtual-thread clients send the requests of one
+ * {@link Scenario} as fast as responses come back, for {@code --duration}. Latencies go into an HdrHistogram;
+ * throughput, percentiles and status counts are printed, and can be saved as a {@link Baseline} or compared
+ * against one. With {@code --launch} the driver starts the packaged jar itself, on the in-memory H2 database,
+ * and stops it afterwards.
+ *
+ * With {@code --server-metrics=true} it also polls the server's actuator during the measured run and reports
+ * what the load cost there: database connections in use (Hikari on the servlet stack, the R2DBC pool on the
+ * reactive one), how long Hikari connections were held and waited for, live threads, heap held per concurrent
+ * client over the idle baseline, and bytes allocated per request.
+ */
+public final class LoadTest {
+    private static final Pattern VALUE = Pattern.compile("\"value\"\\s*:\\s*([-0-9.E]+)");
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(500);
+
+    private final Api api;
+
+    private LoadTest(Api api) {
+        this.api = api;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        Scenario scenario = Scenario.of(opts.getOrDefault("scenario", "transactions"), opts);
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "200"));
+        Duration duration = Duration.parse("PT" + opts.getOrDefault("duration", "30s").toUpperCase());
+        Duration warmup = Duration.parse("PT" + opts.getOrDefault("warmup", "5s").toUpperCase());
+        boolean serverMetrics = Boolean.parseBoolean(opts.getOrDefault("server-metrics", "false"));
+
+        LaunchedServer server = null;
+        String url = opts.getOrDefault("url", "http://localhost:8080");
+        if (opts.containsKey("launch")) {
+            int port = Integer.parseInt(opts.getOrDefault("port", "8080"));
+            server = LaunchedServer.start(Path.of(opts.get("launch")), port, opts.get("jvm-args"),
+                    opts.get("app-args"), Duration.ofMinutes(2));
+            url = "http://localhost:" + port;
+        }
+        boolean ok;
+        try {
+            LoadTest test = new LoadTest(new Api(URI.create(url),
+                    opts.getOrDefault("user", "api"), opts.getOrDefault("password", "pismo123")));
+            ok = test.measure(scenario, concurrency, warmup, duration, serverMetrics, opts);
+        } finally {
+            if (server != null) server.close();
+        }
+        if (!ok) System.exit(1);
+    }
+
+    /** Sets up, warms up and measures one scenario; returns false when it regressed against {@code baseline}. */
+    private boolean measure(Scenario scenario, int concurrency, Duration warmup, Duration duration,
+                            boolean serverMetrics, Map<String, String> opts) throws Exception {
+        System.out.printf("setting up %s ...%n", scenario.name);
+        scenario.setUp(api);
+        // the idle baseline is taken before any load; right after the warmup the server is still draining it
+        ServerSampler sampler = serverMetrics ? new ServerSampler() : null;
+        if (sampler != null) sampler.baseline();
+        System.out.printf("warming up for %s ...%n", warmup);
+        run(scenario, concurrency, warmup);
+
+        if (sampler != null) sampler.start();
+        Result result = run(scenario, concurrency, duration);
+        result.print();
+        if (sampler != null) sampler.stop(result.requests(), concurrency);
+
+        if (opts.containsKey("histogram")) result.writeHistogram(Path.of(opts.get("histogram")));
+        if (opts.containsKey("save-baseline")) Baseline.save(Path.of(opts.get("save-baseline")), result);
+        if (!opts.containsKey("baseline")) return true;
+        double tolerance = Double.parseDouble(opts.getOrDefault("tolerance", "20")) / 100;
+        return Baseline.compare(Path.of(opts.get("baseline")), result, tolerance);
+    }
+
+    private Result run(Scenario scenario, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Histogram[] samples = new Histogram[concurrency];
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                clients.execute(() -> {
+                    // one histogram per client, merged at the end, so recording never contends
+                    Histogram latencies = new Histogram(3);
+                    Scenario.Client requests = scenario.newClient(api);
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = requests.next();
+                        long start = System.nanoTime();
+                        try {
+                            if (requests.readsBody()) {
+                                HttpResponse<String> res = api.send(request);
+                                statuses.computeIfAbsent(res.statusCode(), k -> new LongAdder()).increment();
+                                requests.completed(res);
+                            } else {
+                                HttpResponse<Void> res = api.http.send(request, HttpResponse.BodyHandlers.discarding());
+                                statuses.computeIfAbsent(res.statusCode(), k -> new LongAdder()).increment();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                            continue;
+                        }
+                        latencies.recordValue(System.nanoTime() - start);
+                    }
+                    samples[client] = latencies;
+                });
+            }
+        }
+
+        Histogram all = new Histogram(3);
+        for (Histogram h : samples) {
+            if (h != null) all.add(h);
+        }
+        Map<Integer, Long> byStatus = new HashMap<>();
+        statuses.forEach((k, v) -> byStatus.put(k, v.sum()));
+        return new Result(scenario.name, concurrency, duration, all, byStatus, failures.sum());
+    }
+
+    /** Current value of an actuator metric, or NaN when the server does not publish it. */
+    private double metric(String name) {
+        return metric(name, VALUE);
+    }
+
+    /** One statistic (COUNT, TOTAL_TIME, ...) of an actuator timer, or NaN. */
+    private double metric(String name, String statistic) {
+        return metric(name, Pattern.compile("\"statistic\"\\s*:\\s*\"" + statistic + "\"\\s*,\\s*\"value\"\\s*:\\s*([-0-9.E]+)"));
+    }
+
+    private double metric(String name, Pattern value) {
+        try {
+            HttpResponse<String> res = api.send(api.get("/actuator/metrics/" + name));
+            Matcher m = value.matcher(res.body());
+            return res.statusCode() == 200 && m.find() ? Double.parseDouble(m.group(1)) : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    /** Polls the server's actuator on its own thread while the measured run is going. */
+    private final class ServerSampler {
+        private final Stat connections = new Stat();
+        private final Stat threads = new Stat();
+        private final Stat heap = new Stat();
+        private double idleHeap;
+        private double allocatedBefore;
+        private Timing hold;
+        private Timing acquire;
+        private String pool;
+        private volatile boolean running = true;
+        private Thread thread;
+
+        void baseline() {
+            // the reactive profile keeps a small Hikari pool for JPA, so look for the R2DBC pool first
+            pool = Double.isNaN(metric("r2dbc.pool.acquired")) ? "hikaricp.connections.active" : "r2dbc.pool.acquired";
+            idleHeap = metric("jvm.memory.used?tag=area:heap");
+        }
+
+        void start() {
+            allocatedBefore = metric("jvm.gc.memory.allocated");
+            hold = new Timing("hikaricp.connections.usage");
+            acquire = new Timing("hikaricp.connections.acquire");
+            thread = Thread.ofVirtual().start(() -> {
+                while (running) {
+                    connections.add(metric(pool));
+                    threads.add(metric("jvm.threads.live"));
+                    heap.add(metric("jvm.memory.used?tag=area:heap"));
+                    try {
+                        Thread.sleep(SAMPLE_INTERVAL);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        void stop(long requests, int concurrency) throws InterruptedException {
+            running = false;
+            thread.join();
+            double allocated = metric("jvm.gc.memory.allocated") - allocatedBefore;
+            System.out.printf("server: %s mean=%.1f max=%.0f, threads mean=%.0f max=%.0f%n",
+                    pool, connections.mean(), connections.max, threads.mean(), threads.max);
+            if (pool.startsWith("hikaricp")) {
+                System.out.printf("server: connection hold mean=%.2f ms, acquire wait mean=%.2f ms%n",
+                        hold.meanMillis(), acquire.meanMillis());
+            }
+            System.out.printf("server: heap idle=%.0f MB mean=%.0f MB, held per client=%.1f KB, allocated per request=%.1f KB%n",
+                    idleHeap / (1 << 20), heap.mean() / (1 << 20),
+                    (heap.mean() - idleHeap) / concurrency / 1024, allocated / Math.max(requests, 1) / 1024);
+        }
+    }
+
+    /** Mean of an actuator timer over the measured run, from its COUNT and TOTAL_TIME before and after. */
+    private final class Timing {
+        private final String name;
+        private final double count;
+        private final double total;
+
+        Timing(String name) {
+            this.name = name;
+            this.count = metric(name, "COUNT");
+            this.total = metric(name, "TOTAL_TIME");
+        }
+
+        double meanMillis() {
+            double n = metric(name, "COUNT") - count;
+            // actuator reports timer totals in seconds
+            return n > 0 ? (metric(name, "TOTAL_TIME") - total) / n * 1000 : Double.NaN;
+        }
+    }
+
+    private static final class Stat {
+        private double sum;
+        private long count;
+        private double max = Double.NaN;
+
+        void add(double value) {
+            if (Double.isNaN(value)) return;
+            sum += value;
+            count++;
+            max = Double.isNaN(max) ? value : Math.max(max, value);
+        }
+
+        double mean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            String opt = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = opt.indexOf('=');
+            if (eq > 0) opts.put(opt.substring(0, eq), opt.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.pismo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One measured run: the latency of every completed request in an HdrHistogram (nanoseconds, 3 significant
+ * digits), response counts by status, and requests that never got a response. Latencies of error responses
+ * are included; transport failures are not. Throughput counts successful responses only, so a server that
+ * fails fast does not pass for a faster one.
+ */
+record Result(String scenario, int concurrency, Duration duration, Histogram latencies,
+              Map<Integer, Long> statuses, long failures) {
+
+    long requests() {
+        return latencies.getTotalCount();
+    }
+
+    /** Responses with a status below 400. */
+    long successes() {
+        long ok = 0;
+        for (Map.Entry<Integer, Long> e : statuses.entrySet()) {
+            if (e.getKey() < 400) ok += e.getValue();
+        }
+        return ok;
+    }
+
+    /** Successful responses per second. */
+    double throughput() {
+        return successes() / (duration.toMillis() / 1000.0);
+    }
+
+    /** Share of requests answered with a status of 400 or above, or not answered at all. */
+    double errorRate() {
+        long errors = failures;
+        for (Map.Entry<Integer, Long> e : statuses.entrySet()) {
+            if (e.getKey() >= 400) errors += e.getValue();
+        }
+        long total = requests() + failures;
+        return total == 0 ? 0 : (double) errors / total;
+    }
+
+    double percentileMillis(double percentile) {
+        return requests() == 0 ? Double.NaN : latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    /** The figures a baseline keeps, in print order. */
+    Map<String, Double> summary() {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("throughput", throughput());
+        summary.put("p50", percentileMillis(50));
+        summary.put("p90", percentileMillis(90));
+        summary.put("p99", percentileMillis(99));
+        summary.put("p99.9", percentileMillis(99.9));
+        summary.put("max", requests() == 0 ? Double.NaN : latencies.getMaxValue() / 1_000_000.0);
+        summary.put("error-rate", errorRate());
+        return summary;
+    }
+
+    void print() {
+        System.out.printf("scenario=%s concurrency=%d duration=%s requests=%d successful=%d throughput=%.1f req/s%n",
+                scenario, concurrency, duration, requests(), successes(), throughput());
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                summary().get("max"));
+        System.out.printf("statuses=%s transport-failures=%d error-rate=%.2f%%%n",
+                new TreeMap<>(statuses), failures, errorRate() * 100);
+    }
+
+    /** Writes the full percentile distribution in milliseconds, in the {@code .hgrm} format HdrHistogram plots. */
+    void writeHistogram(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latencies.outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.pismo.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What the clients of a run send. {@link #setUp} runs once before the warmup and creates the data the requests
+ * need; each client then gets its own {@link Client}, used only on that client's thread, so it can keep state
+ * such as a paging cursor.
+ */
+abstract class Scenario {
+    final String name;
+
+    Scenario(String name) {
+        this.name = name;
+    }
+
+    static Scenario of(String name, Map<String, String> opts) {
+        return switch (name) {
+            case "transactions" -> new Transactions(name, intOpt(opts, "accounts", 1), false, 0, 0);
+            case "hot-account" -> new Transactions(name, 1, true, intOpt(opts, "credit-share", 20),
+                    intOpt(opts, "stripes", 0));
+            case "wide-accounts" -> new Transactions(name, intOpt(opts, "accounts", 1000), true,
+                    intOpt(opts, "credit-share", 20), intOpt(opts, "stripes", 0));
+            case "account-burst" -> new AccountBurst();
+            case "history-paging" -> new HistoryPaging(intOpt(opts, "accounts", 20),
+                    intOpt(opts, "history", 500), intOpt(opts, "page-size", 50));
+            default -> throw new IllegalArgumentException("Unknown scenario " + name
+                    + "; expected transactions, hot-account, wide-accounts, account-burst or history-paging");
+        };
+    }
+
+    private static int intOpt(Map<String, String> opts, String key, int defaultValue) {
+        return opts.containsKey(key) ? Integer.parseInt(opts.get(key)) : defaultValue;
+    }
+
+    void setUp(Api api) throws Exception {
+    }
+
+    abstract Client newClient(Api api);
+
+    /** One client's request stream. */
+    interface Client {
+        HttpRequest next();
+
+        /** Whether {@link #completed} needs the response body; otherwise it is discarded unread. */
+        default boolean readsBody() {
+            return false;
+        }
+
+        default void completed(HttpResponse<String> response) {
+        }
+    }
+
+    /**
+     * {@code POST /transactions} spread uniformly over {@code accounts} accounts: {@code transactions} posts
+     * purchases of 0.01 only, the two others make {@code credit-share} percent of posts payments (type 4) and the
+     * rest types 1-3, so limit-checked and unchecked updates contend for the same rows. {@code hot-account} puts
+     * every client on one account; {@code wide-accounts} spreads them thin enough that they rarely meet. With
+     * {@code stripes} the accounts are striped through the {@code balancestripes} actuator endpoint, which needs
+     * {@code app.balances.stripes.enabled=true} on the server.
+     */
+    private static final class Transactions extends Scenario {
+        private final int accounts;
+        private final boolean mixed;
+        private final int creditShare;
+        private final int stripes;
+        private long[] accountIds;
+
+        Transactions(String name, int accounts, boolean mixed, int creditShare, int stripes) {
+            super(name);
+            this.accounts = accounts;
+            this.mixed = mixed;
+            this.creditShare = creditShare;
+            this.stripes = stripes;
+        }
+
+        @Override
+        void setUp(Api api) throws Exception {
+            accountIds = api.createAccounts(accounts, "LT");
+            if (stripes > 0) {
+                for (long id : accountIds) api.stripe(id, stripes);
+            }
+        }
+
+        @Override
+        Client newClient(Api api) {
+            return () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long account = accountIds[random.nextInt(accountIds.length)];
+                int operationType = !mixed ? 1 : random.nextInt(100) < creditShare ? 4 : 1 + random.nextInt(3);
+                String body = "{\"account_id\":" + account + ",\"operation_type_id\":" + operationType
+                        + ",\"amount\":0.01}";
+                return api.post("/transactions", body);
+            };
+        }
+    }
+
+    /** {@code POST /accounts} with a fresh document number per request: inserts only, no contention. */
+    private static final class AccountBurst extends Scenario {
+        private final String run = Long.toString(System.currentTimeMillis(), 36);
+        private final AtomicLong sequence = new AtomicLong();
+
+        AccountBurst() {
+            super("account-burst");
+        }
+
+        @Override
+        Client newClient(Api api) {
+            return () -> api.post("/accounts", "{\"document_number\":\"LTB-" + run + '-' + sequence.incrementAndGet()
+                    + "\",\"credit_limit\":1000.00}");
+        }
+    }
+
+    /**
+     * Reads {@code GET /transactions/history} page by page: {@code accounts} accounts are seeded with
+     * {@code history} transactions each, and every client walks one account's history to the end through
+     * {@code next_cursor}, then starts over on another account.
+     */
+    private static final class HistoryPaging extends Scenario {
+        private static final Pattern NEXT_CURSOR = Pattern.compile("\"next_cursor\"\\s*:\\s*\"([^\"]+)\"");
+
+        private final int accounts;
+        private final int history;
+        private final int pageSize;
+        private long[] accountIds;
+
+        HistoryPaging(int accounts, int history, int pageSize) {
+            super("history-paging");
+            this.accounts = accounts;
+            this.history = history;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        void setUp(Api api) throws Exception {
+            accountIds = api.createAccounts(accounts, "LTH");
+            for (long id : accountIds) api.seedHistory(id, history);
+        }
+
+        @Override
+        Client newClient(Api api) {
+            return new Client() {
+                private long account;
+                private String cursor;
+
+                @Override
+                public HttpRequest next() {
+                    if (cursor == null) account = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+                    return api.get("/transactions/history?account_id=" + account + "&size=" + pageSize
+                            + (cursor == null ? "" : "&cursor=" + cursor));
+                }
+
+                @Override
+                public boolean readsBody() {
+                    return true;
+                }
+
+                @Override
+                public void completed(HttpResponse<String> response) {
+                    Matcher m = NEXT_CURSOR.matcher(response.body());
+                    cursor = response.statusCode() == 200 && m.find() ? m.group(1) : null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pismo.archive;
+
+import com.example.pismo.repository.TransactionView;
+
+import java.time.OffsetDateTime;
+
+/** A {@code transactions} row read back from an archive segment; amount is in cents. */
+public record ArchivedTransaction(long id, long accountId, int operationTypeId, long amount, OffsetDateTime eventDate) {
+
+    public TransactionView toView() {
+        return new TransactionView(id, accountId, operationTypeId, amount);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.pismo.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Read side of the transaction archive: the {@code transaction_archive_segments} catalog and the segment files
+ * it lists, under {@code app.transactions.archive.directory}. Lookups pick segments by the catalog's month,
+ * account and id ranges, then row groups by the ranges in each file's footer, and only decompress those.
+ * Segment files never change once written, so footers are cached by file name.
+ */
+@Component
+public class TransactionArchive {
+    static final String SEGMENT_COLUMNS = "file_name, range_start, range_end, row_count, min_account_id,"
+            + " max_account_id, min_transaction_id, max_transaction_id, size_bytes, archived_at";
+
+    private static final RowMapper<Segment> SEGMENT = (rs, i) -> new Segment(rs.getString(1),
+            rs.getObject(2, OffsetDateTime.class), rs.getObject(3, OffsetDateTime.class), rs.getLong(4),
+            rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8), rs.getLong(9),
+            rs.getObject(10, OffsetDateTime.class));
+
+    private final JdbcTemplate jdbc;
+    private final Path directory;
+    private final Map<String, List<TransactionSegmentFile.Group>> footers = new ConcurrentHashMap<>();
+
+    public TransactionArchive(JdbcTemplate jdbc,
+                              @Value("${app.transactions.archive.directory:archive}") String directory) {
+        this.jdbc = jdbc;
+        this.directory = Path.of(directory);
+    }
+
+    /** A catalog row: {@code [rangeStart, rangeEnd)} is the month the segment's rows came from. */
+    public record Segment(String fileName, OffsetDateTime rangeStart, OffsetDateTime rangeEnd, long rows,
+                          long minAccountId, long maxAccountId, long minTransactionId, long maxTransactionId,
+                          long sizeBytes, OffsetDateTime archivedAt) {
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public List<Segment> segments() {
+        return jdbc.query("select " + SEGMENT_COLUMNS + " from transaction_archive_segments"
+                + " order by range_start, min_transaction_id", SEGMENT);
+    }
+
+    /**
+     * The account's archived transactions with an id below {@code beforeId} and {@code event_date >= from},
+     * newest first, at most {@code limit} of them.
+     */
+    public List<ArchivedTransaction> before(long accountId, long beforeId, OffsetDateTime from, int limit) {
+        List<Segment> segments = jdbc.query("select " + SEGMENT_COLUMNS + " from transaction_archive_segments"
+                        + " where min_account_id <= ? and max_account_id >= ? and range_end > ? and min_transaction_id < ?",
+                SEGMENT, accountId, accountId, from, beforeId);
+        long fromMicros = TransactionSegmentFile.micros(from);
+        // the newest `limit` rows seen so far, oldest on top
+        PriorityQueue<ArchivedTransaction> newest = new PriorityQueue<>(Comparator.comparingLong(ArchivedTransaction::id));
+        for (Segment segment : segments) {
+            for (TransactionSegmentFile.Group group : footer(segment)) {
+                if (!group.mayHoldAccount(accountId) || group.minTransactionId() >= beforeId
+                        || group.maxEventMicros() < fromMicros) continue;
+                TransactionSegmentFile.Columns rows = read(segment, group);
+                for (int i = rows.firstOf(accountId); i < rows.rows() && rows.accountIds()[i] == accountId; i++) {
+                    if (rows.ids()[i] >= beforeId || rows.eventMicros()[i] < fromMicros) continue;
+                    if (newest.size() < limit) {
+                        newest.add(rows.row(i));
+                    } else if (rows.ids()[i] > newest.peek().id()) {
+                        newest.poll();
+                        newest.add(rows.row(i));
+                    }
+                }
+            }
+        }
+        List<ArchivedTransaction> out = new ArrayList<>(newest);
+        out.sort(Comparator.comparingLong(ArchivedTransaction::id).reversed());
+        return out;
+    }
+
+    public Optional<ArchivedTransaction> find(long id) {
+        List<Segment> segments = jdbc.query("select " + SEGMENT_COLUMNS + " from transaction_archive_segments"
+                + " where min_transaction_id <= ? and max_transaction_id >= ?", SEGMENT, id, id);
+        for (Segment segment : segments) {
+            for (TransactionSegmentFile.Group group : footer(segment)) {
+                if (!group.mayHoldId(id)) continue;
+                TransactionSegmentFile.Columns rows = read(segment, group);
+                for (int i = 0; i < rows.rows(); i++) {
+                    if (rows.ids()[i] == id) return Optional.of(rows.row(i));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Whether any segment may hold the account's archived transactions with {@code event_date >= from}. */
+    public boolean mayHold(long accountId, OffsetDateTime from) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("select exists (select 1 from transaction_archive_segments"
+                + " where min_account_id <= ? and max_account_id >= ? and range_end > ?)",
+                Boolean.class, accountId, accountId, from));
+    }
+
+    /**
+     * Hands the account's archived transactions with {@code from <= event_date < to} (either bound optional) to
+     * the sink, segment by segment in month order, and in id order within a segment.
+     */
+    public void forEach(long accountId, @Nullable OffsetDateTime from, @Nullable OffsetDateTime to,
+                        Consumer<ArchivedTransaction> sink) {
+        forEach(accountId, accountId, from, to, sink);
+    }
+
+    /**
+     * {@link #forEach(long, OffsetDateTime, OffsetDateTime, Consumer)} for every account with
+     * {@code firstAccountId <= account_id <= lastAccountId}: segment by segment in month order, and in account
+     * and id order within a segment.
+     */
+    public void forEach(long firstAccountId, long lastAccountId, @Nullable OffsetDateTime from,
+                        @Nullable OffsetDateTime to, Consumer<ArchivedTransaction> sink) {
+        StringBuilder sql = new StringBuilder("select " + SEGMENT_COLUMNS + " from transaction_archive_segments"
+                + " where min_account_id <= ? and max_account_id >= ?");
+        List<Object> args = new ArrayList<>(List.of(lastAccountId, firstAccountId));
+        if (from != null) {
+            sql.append(" and range_end > ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" and range_start < ?");
+            args.add(to);
+        }
+        sql.append(" order by range_start, min_transaction_id");
+        Long fromMicros = from == null ? null : TransactionSegmentFile.micros(from);
+        Long toMicros = to == null ? null : TransactionSegmentFile.micros(to);
+
+        for (Segment segment : jdbc.query(sql.toString(), SEGMENT, args.toArray())) {
+            for (TransactionSegmentFile.Group group : footer(segment)) {
+                if (!group.mayHoldAccounts(firstAccountId, lastAccountId)) continue;
+                TransactionSegmentFile.Columns rows = read(segment, group);
+                for (int i = rows.firstFrom(firstAccountId); i < rows.rows() && rows.accountIds()[i] <= lastAccountId; i++) {
+                    long micros = rows.eventMicros()[i];
+                    if (fromMicros != null && micros < fromMicros) continue;
+                    if (toMicros != null && micros >= toMicros) continue;
+                    sink.accept(rows.row(i));
+                }
+            }
+        }
+    }
+
+    private List<TransactionSegmentFile.Group> footer(Segment segment) {
+        return footers.computeIfAbsent(segment.fileName(), name -> {
+            try {
+                return TransactionSegmentFile.readFooter(directory.resolve(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive segment " + name, e);
+            }
+        });
+    }
+
+    private TransactionSegmentFile.Columns read(Segment segment, TransactionSegmentFile.Group group) {
+        try {
+            return TransactionSegmentFile.readGroup(directory.resolve(segment.fileName()), group);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + segment.fileName(), e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.pismo.archive;
+
+import com.example.pismo.entity.Cents;
+import com.example.pismo.service.BalanceSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves cold months of {@code transactions} into archive segments ({@code app.transactions.archive.enabled=true}).
+ *
+ * A run first advances the balance snapshots, so each archived row is covered by its account's snapshot and
+ * balance checks, audits and restores never read it again. Then, for every month that ended at least
+ * {@code after-months} months ago, it streams the month's covered rows, sorted by account and id, into a new
+ * {@link TransactionSegmentFile}, forces it to disk and renames it into place, and in one database transaction
+ * lists the segment in the catalog and deletes those rows. A crash in between leaves the rows in the table and,
+ * at worst, an unlisted file that nothing reads. Rows above their account's snapshot (pooled ids can land there)
+ * stay in the table until a later run.
+ *
+ * Segment files are written to this instance's disk: run the archiver on one instance, and put
+ * {@code app.transactions.archive.directory} on storage every instance can read.
+ */
+@Component
+public class TransactionArchiver {
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    static final String SELECT_COVERED = "select t.transaction_id, t.account_id, t.operation_type_id, t.amount,"
+            + " t.event_date from transactions t join balance_snapshots s on s.account_id = t.account_id"
+            + " where t.event_date >= ? and t.event_date < ? and t.transaction_id <= s.last_transaction_id"
+            + " order by t.account_id, t.transaction_id";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final BalanceSnapshotService snapshots;
+    private final TransactionPartitions partitions;
+    private final TransactionArchive archive;
+    private final int afterMonths;
+    private final int rowGroupSize;
+    private final int fetchSize;
+
+    public TransactionArchiver(JdbcTemplate jdbc,
+                               PlatformTransactionManager txManager,
+                               BalanceSnapshotService snapshots,
+                               TransactionPartitions partitions,
+                               TransactionArchive archive,
+                               @Value("${app.transactions.archive.enabled:false}") boolean enabled,
+                               @Value("${app.transactions.archive.after-months:12}") int afterMonths,
+                               @Value("${app.transactions.archive.row-group-size:65536}") int rowGroupSize,
+                               @Value("${app.transactions.archive.fetch-size:1000}") int fetchSize) {
+        if (enabled && afterMonths < partitions.recentMonths()) {
+            throw new IllegalStateException("app.transactions.archive.after-months cannot be below "
+                    + "app.transactions.partitions.recent-months, or default reads would miss archived months");
+        }
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.snapshots = snapshots;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.afterMonths = afterMonths;
+        this.rowGroupSize = rowGroupSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param segments segment files written
+     * @param rows     transactions moved out of the table
+     * @param bytes    total size of the new segment files
+     */
+    public record ArchiveResult(int segments, long rows, long bytes, Duration elapsed) {}
+
+    /** Archives every month before {@code after-months} ago that still has rows in the table. */
+    public synchronized ArchiveResult archive() {
+        long started = System.nanoTime();
+        OffsetDateTime cutoff = TransactionPartitions.monthStart(OffsetDateTime.now(ZoneOffset.UTC)).minusMonths(afterMonths);
+        OffsetDateTime oldest = jdbc.queryForObject("select min(event_date) from transactions where event_date < ?",
+                OffsetDateTime.class, cutoff);
+        int segments = 0;
+        long rows = 0, bytes = 0;
+        if (oldest != null) {
+            snapshots.refresh(false);
+            try {
+                Files.createDirectories(archive.directory());
+                for (OffsetDateTime month = TransactionPartitions.monthStart(oldest); month.isBefore(cutoff);
+                     month = month.plusMonths(1)) {
+                    TransactionArchive.Segment segment = archiveMonth(month, month.plusMonths(1));
+                    if (segment != null) {
+                        segments++;
+                        rows += segment.rows();
+                        bytes += segment.sizeBytes();
+                    }
+                    partitions.dropIfEmpty(month);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to " + archive.directory(), e);
+            }
+        }
+        partitions.createAhead();
+        ArchiveResult result = new ArchiveResult(segments, rows, bytes, Duration.ofNanos(System.nanoTime() - started));
+        log.info("Transactions archived: {}", result);
+        return result;
+    }
+
+    /** Writes and lists one segment for the month's covered rows; null when there were none. */
+    private TransactionArchive.Segment archiveMonth(OffsetDateTime start, OffsetDateTime end) throws IOException {
+        String name = String.format("transactions-%04d-%02d-%d.ptxs", start.getYear(), start.getMonthValue(),
+                System.currentTimeMillis());
+        Path target = archive.directory().resolve(name);
+        Path tmp = archive.directory().resolve(name + ".tmp");
+        // account id -> highest archived transaction id, in account order
+        Map<Long, Long> lastIds = new LinkedHashMap<>();
+        long[] ids = {Long.MAX_VALUE, Long.MIN_VALUE};
+        long rows;
+        try (TransactionSegmentFile.Writer writer = new TransactionSegmentFile.Writer(tmp, rowGroupSize)) {
+            readOnlyTemplate.executeWithoutResult(status -> jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_COVERED,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, start);
+                ps.setObject(2, end);
+                return ps;
+            }, rs -> {
+                long id = rs.getLong(1);
+                long accountId = rs.getLong(2);
+                try {
+                    writer.add(id, accountId, rs.getInt(3), Cents.fromDecimal(rs.getBigDecimal(4)),
+                            rs.getObject(5, OffsetDateTime.class));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                lastIds.put(accountId, id);
+                ids[0] = Math.min(ids[0], id);
+                ids[1] = Math.max(ids[1], id);
+            }));
+            rows = writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        if (rows == 0) {
+            Files.deleteIfExists(tmp);
+            return null;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        Long[] accounts = lastIds.keySet().toArray(Long[]::new);
+        TransactionArchive.Segment segment = new TransactionArchive.Segment(name, start, end, rows,
+                accounts[0], accounts[accounts.length - 1], ids[0], ids[1], Files.size(target),
+                OffsetDateTime.now(ZoneOffset.UTC));
+        try {
+            txTemplate.executeWithoutResult(status -> {
+                jdbc.update("insert into transaction_archive_segments (" + TransactionArchive.SEGMENT_COLUMNS + ")"
+                                + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        segment.fileName(), segment.rangeStart(), segment.rangeEnd(), segment.rows(),
+                        segment.minAccountId(), segment.maxAccountId(), segment.minTransactionId(),
+                        segment.maxTransactionId(), segment.sizeBytes(), segment.archivedAt());
+                // nothing new can land in a past month, so per account "up to the last archived id" is the file
+                int[][] counts = jdbc.batchUpdate("delete from transactions where account_id = ?"
+                                + " and event_date >= ? and event_date < ? and transaction_id <= ?",
+                        lastIds.entrySet(), 1000, (ps, e) -> {
+                            ps.setLong(1, e.getKey());
+                            ps.setObject(2, start);
+                            ps.setObject(3, end);
+                            ps.setLong(4, e.getValue());
+                        });
+                long deleted = 0;
+                for (int[] batch : counts) {
+                    for (int n : batch) {
+                        // drivers that cannot report counts return SUCCESS_NO_INFO (-2)
+                        if (n < 0) return;
+                        deleted += n;
+                    }
+                }
+                if (deleted != rows) {
+                    throw new IllegalStateException("Archiving " + name + " would delete " + deleted
+                            + " transactions but wrote " + rows);
+                }
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        log.info("Archived {} transactions of {} to {}", rows, YearMonth.from(start), target);
+        return segment;
+    }
+}
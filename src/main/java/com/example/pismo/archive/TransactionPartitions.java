@@ -0,0 +1,134 @@
+package com.example.pismo.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Monthly range partitions of {@code transactions} on {@code event_date}, in UTC calendar months.
+ *
+ * Account listings and history read the {@code app.transactions.partitions.recent-months} most recent
+ * partitions unless the caller passes an older {@code from}; months older than that may have been moved to the
+ * archive by {@link TransactionArchiver}. On PostgreSQL, when {@code transactions} was created partitioned
+ * ({@code db/postgresql/transactions-partitioned.sql}), the month tables are created ahead of time here and
+ * dropped once archived, and the {@code event_date} bound on every read lets the planner skip the rest. Other
+ * databases keep one table, where the same bounds only limit what is scanned and archived.
+ */
+@Component
+public class TransactionPartitions implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitions.class);
+
+    private final JdbcTemplate jdbc;
+    private final int recentMonths;
+    private final int monthsAhead;
+    private volatile boolean declarative;
+
+    public TransactionPartitions(JdbcTemplate jdbc,
+                                 @Value("${app.transactions.partitions.recent-months:3}") int recentMonths,
+                                 @Value("${app.transactions.partitions.months-ahead:3}") int monthsAhead) {
+        if (recentMonths < 1) {
+            throw new IllegalStateException("app.transactions.partitions.recent-months must be at least 1");
+        }
+        this.jdbc = jdbc;
+        this.recentMonths = recentMonths;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        declarative = detect();
+        if (declarative) createAhead();
+    }
+
+    public int recentMonths() {
+        return recentMonths;
+    }
+
+    /** Whether {@code transactions} is a PostgreSQL partitioned table. */
+    public boolean isDeclarative() {
+        return declarative;
+    }
+
+    public static OffsetDateTime monthStart(OffsetDateTime t) {
+        return t.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+    }
+
+    /** Start of the oldest recent partition: reads without a {@code from} begin here. */
+    public OffsetDateTime recentFrom() {
+        return monthStart(OffsetDateTime.now(ZoneOffset.UTC)).minusMonths(recentMonths - 1);
+    }
+
+    /** The lower {@code event_date} bound of a read: {@code from} when given, the recent partitions otherwise. */
+    public OffsetDateTime from(@Nullable OffsetDateTime from) {
+        return from != null ? from : recentFrom();
+    }
+
+    /** Whether a read from {@code from} reaches months that may have been archived. */
+    public boolean reachesArchive(OffsetDateTime from) {
+        return from.isBefore(recentFrom());
+    }
+
+    /**
+     * For reads that take the archive first and the table second, in one repeatable-read transaction: run it
+     * first. It takes the transaction's snapshot, so rows an archiver run deletes later are still read from the
+     * table, and holds a share lock on {@code transactions} until the caller commits, so the run cannot detach
+     * and drop an emptied month's partition in between (partitions are looked up in the current catalog, not in
+     * the snapshot).
+     */
+    public void holdForRead() {
+        jdbc.queryForList("select 1 from transactions where 1 = 0");
+    }
+
+    static String tableName(OffsetDateTime monthStart) {
+        return String.format("transactions_p%04d_%02d", monthStart.getYear(), monthStart.getMonthValue());
+    }
+
+    /** Creates the partitions of this month and the next {@code months-ahead}; PostgreSQL partitioned tables only. */
+    public void createAhead() {
+        if (!declarative) return;
+        OffsetDateTime month = monthStart(OffsetDateTime.now(ZoneOffset.UTC));
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            try {
+                jdbc.execute("create table if not exists " + tableName(month) + " partition of transactions"
+                        + " for values from ('" + month + "') to ('" + month.plusMonths(1) + "')");
+            } catch (RuntimeException ex) {
+                // typically rows for that month already sit in the default partition
+                log.warn("Could not create partition {}", tableName(month), ex);
+            }
+        }
+    }
+
+    /** Detaches and drops the month's partition once archiving left it empty; PostgreSQL partitioned tables only. */
+    public boolean dropIfEmpty(OffsetDateTime monthStart) {
+        if (!declarative) return false;
+        String table = tableName(monthStart);
+        List<String> found = jdbc.queryForList("select c.relname from pg_inherits i"
+                + " join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent"
+                + " where p.relname = 'transactions' and c.relname = ?", String.class, table);
+        if (found.isEmpty()) return false;
+        if (Boolean.TRUE.equals(jdbc.queryForObject("select exists (select 1 from " + table + ")", Boolean.class))) {
+            return false;
+        }
+        jdbc.execute("alter table transactions detach partition " + table);
+        jdbc.execute("drop table " + table);
+        log.info("Dropped archived partition {}", table);
+        return true;
+    }
+
+    private boolean detect() {
+        String product = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) return false;
+        return Boolean.TRUE.equals(jdbc.queryForObject("select exists (select 1 from pg_partitioned_table pt"
+                + " join pg_class c on c.oid = pt.partrelid where c.relname = 'transactions')", Boolean.class));
+    }
+}
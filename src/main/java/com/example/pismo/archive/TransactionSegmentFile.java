@@ -0,0 +1,310 @@
+package com.example.pismo.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * File format of an archive segment: archived {@code transactions} rows stored column by column.
+ *
+ * <pre>
+ * "PTXS" version                      two ints
+ * row group*                          rows sorted by (account_id, transaction_id); six columns, each
+ *                                     raw length (int), deflated length (int), deflated bytes
+ * group count (int), per group:       offset (long), length (int), rows (int), then min and max of
+ *                                     account_id, transaction_id and event_date (epoch micros), all longs
+ * footer offset (long) "PTXS"
+ * </pre>
+ *
+ * Columns are runs of zig-zag varints: transaction ids, account ids and event dates as the difference from the
+ * previous row, operation types, amounts and UTC offsets as they are. Sorted rows make those runs of small,
+ * repetitive numbers, which deflate well. Readers load the footer and decompress only the row groups whose
+ * ranges can hold what they are looking for.
+ */
+final class TransactionSegmentFile {
+    static final int MAGIC = 0x50545853; // "PTXS"
+    static final int VERSION = 1;
+    private static final int TRAILER = Long.BYTES + Integer.BYTES;
+
+    private TransactionSegmentFile() {}
+
+    /** Footer entry of one row group. */
+    record Group(long offset, int length, int rows,
+                 long minAccountId, long maxAccountId,
+                 long minTransactionId, long maxTransactionId,
+                 long minEventMicros, long maxEventMicros) {
+
+        boolean mayHoldAccount(long accountId) {
+            return minAccountId <= accountId && accountId <= maxAccountId;
+        }
+
+        boolean mayHoldAccounts(long firstAccountId, long lastAccountId) {
+            return minAccountId <= lastAccountId && firstAccountId <= maxAccountId;
+        }
+
+        boolean mayHoldId(long id) {
+            return minTransactionId <= id && id <= maxTransactionId;
+        }
+    }
+
+    /** One decoded row group. */
+    record Columns(int rows, long[] ids, long[] accountIds, long[] operationTypeIds, long[] amounts,
+                   long[] eventMicros, long[] offsetSeconds) {
+
+        ArchivedTransaction row(int i) {
+            return new ArchivedTransaction(ids[i], accountIds[i], (int) operationTypeIds[i], amounts[i],
+                    eventDate(eventMicros[i], (int) offsetSeconds[i]));
+        }
+
+        /** First row of the account, or {@code rows} when it has none; rows are sorted by account. */
+        int firstOf(long accountId) {
+            int i = firstFrom(accountId);
+            return i < rows && accountIds[i] == accountId ? i : rows;
+        }
+
+        /** First row of the account or of the next account after it, or {@code rows} when there is none. */
+        int firstFrom(long accountId) {
+            int i = Arrays.binarySearch(accountIds, 0, rows, accountId);
+            if (i < 0) return -i - 1;
+            while (i > 0 && accountIds[i - 1] == accountId) i--;
+            return i;
+        }
+    }
+
+    static long micros(OffsetDateTime t) {
+        return Math.addExact(Math.multiplyExact(t.toEpochSecond(), 1_000_000L), t.getNano() / 1_000);
+    }
+
+    static OffsetDateTime eventDate(long micros, int offsetSeconds) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                Math.floorMod(micros, 1_000_000L) * 1_000L);
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    /** Writes rows, which must arrive sorted by account and then id, to a new file. */
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final int groupSize;
+        private final long[] ids, accountIds, operationTypeIds, amounts, eventMicros, offsetSeconds;
+        private final List<Group> groups = new ArrayList<>();
+        private final ColumnEncoder encoder = new ColumnEncoder();
+        private long position;
+        private long total;
+        private int rows;
+
+        Writer(Path path, int groupSize) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            this.groupSize = groupSize;
+            this.ids = new long[groupSize];
+            this.accountIds = new long[groupSize];
+            this.operationTypeIds = new long[groupSize];
+            this.amounts = new long[groupSize];
+            this.eventMicros = new long[groupSize];
+            this.offsetSeconds = new long[groupSize];
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = 2 * Integer.BYTES;
+        }
+
+        void add(long id, long accountId, int operationTypeId, long amount, OffsetDateTime eventDate) throws IOException {
+            ids[rows] = id;
+            accountIds[rows] = accountId;
+            operationTypeIds[rows] = operationTypeId;
+            amounts[rows] = amount;
+            eventMicros[rows] = micros(eventDate);
+            offsetSeconds[rows] = eventDate.getOffset().getTotalSeconds();
+            if (++rows == groupSize) flushGroup();
+        }
+
+        /** Writes the last row group and the footer, and forces the file to disk; returns the rows written. */
+        long finish() throws IOException {
+            if (rows > 0) flushGroup();
+            long footer = position;
+            out.writeInt(groups.size());
+            for (Group g : groups) {
+                out.writeLong(g.offset());
+                out.writeInt(g.length());
+                out.writeInt(g.rows());
+                out.writeLong(g.minAccountId());
+                out.writeLong(g.maxAccountId());
+                out.writeLong(g.minTransactionId());
+                out.writeLong(g.maxTransactionId());
+                out.writeLong(g.minEventMicros());
+                out.writeLong(g.maxEventMicros());
+            }
+            out.writeLong(footer);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void flushGroup() throws IOException {
+            int length = writeColumn(ids, true)
+                    + writeColumn(accountIds, true)
+                    + writeColumn(operationTypeIds, false)
+                    + writeColumn(amounts, false)
+                    + writeColumn(eventMicros, true)
+                    + writeColumn(offsetSeconds, false);
+            long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE, minMicros = Long.MAX_VALUE, maxMicros = Long.MIN_VALUE;
+            for (int i = 0; i < rows; i++) {
+                minId = Math.min(minId, ids[i]);
+                maxId = Math.max(maxId, ids[i]);
+                minMicros = Math.min(minMicros, eventMicros[i]);
+                maxMicros = Math.max(maxMicros, eventMicros[i]);
+            }
+            groups.add(new Group(position, length, rows, accountIds[0], accountIds[rows - 1], minId, maxId,
+                    minMicros, maxMicros));
+            position += length;
+            total += rows;
+            rows = 0;
+        }
+
+        private int writeColumn(long[] values, boolean delta) throws IOException {
+            encoder.reset();
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                encoder.writeZigZag(delta ? values[i] - previous : values[i]);
+                previous = values[i];
+            }
+            byte[] deflated = encoder.deflate();
+            out.writeInt(encoder.length);
+            out.writeInt(deflated.length);
+            out.write(deflated);
+            return 2 * Integer.BYTES + deflated.length;
+        }
+    }
+
+    static List<Group> readFooter(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer trailer = read(channel, size - TRAILER, TRAILER);
+            long footer = trailer.getLong();
+            if (trailer.getInt() != MAGIC || footer < 0 || footer > size - TRAILER) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            ByteBuffer buf = read(channel, footer, (int) (size - TRAILER - footer));
+            int count = buf.getInt();
+            List<Group> groups = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                groups.add(new Group(buf.getLong(), buf.getInt(), buf.getInt(), buf.getLong(), buf.getLong(),
+                        buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong()));
+            }
+            return groups;
+        }
+    }
+
+    static Columns readGroup(Path path, Group group) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buf = read(channel, group.offset(), group.length());
+        }
+        int rows = group.rows();
+        return new Columns(rows, readColumn(buf, rows, true), readColumn(buf, rows, true),
+                readColumn(buf, rows, false), readColumn(buf, rows, false), readColumn(buf, rows, true),
+                readColumn(buf, rows, false));
+    }
+
+    private static long[] readColumn(ByteBuffer buf, int rows, boolean delta) throws IOException {
+        byte[] raw = new byte[buf.getInt()];
+        byte[] deflated = new byte[buf.getInt()];
+        buf.get(deflated);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                throw new IOException("Corrupt archive column");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive column", e);
+        } finally {
+            inflater.end();
+        }
+        long[] values = new long[rows];
+        int pos = 0;
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long unsigned = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos == raw.length) throw new IOException("Corrupt archive column");
+                b = raw[pos++];
+                unsigned |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            long value = (unsigned >>> 1) ^ -(unsigned & 1);
+            values[i] = delta ? previous + value : value;
+            previous = values[i];
+        }
+        return values;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) throw new EOFException();
+        }
+        return buf.flip();
+    }
+
+    /** Varint bytes of one column, reused across columns and groups. */
+    private static final class ColumnEncoder {
+        private byte[] bytes = new byte[1 << 16];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void writeZigZag(long value) {
+            long unsigned = (value << 1) ^ (value >> 63);
+            if (bytes.length - length < 10) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            while ((unsigned & ~0x7fL) != 0) {
+                bytes[length++] = (byte) ((unsigned & 0x7f) | 0x80);
+                unsigned >>>= 7;
+            }
+            bytes[length++] = (byte) unsigned;
+        }
+
+        byte[] deflate() {
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setInput(bytes, 0, length);
+                deflater.finish();
+                byte[] out = new byte[Math.max(64, length / 2)];
+                int n = 0;
+                while (!deflater.finished()) {
+                    if (n == out.length) out = Arrays.copyOf(out, out.length * 2);
+                    n += deflater.deflate(out, n, out.length - n);
+                }
+                return Arrays.copyOf(out, n);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.pismo.config;
+
+import com.example.pismo.service.BalanceSnapshotService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Balance snapshot refresh: on a fixed delay when {@code app.ledger.snapshots.enabled=true}, and on demand
+ * through the {@code balancesnapshots} actuator endpoint ({@code restore=true} also rewrites the balance column).
+ */
+@Configuration
+public class BalanceSnapshotConfig {
+
+    @Bean
+    public BalanceSnapshotEndpoint balanceSnapshotEndpoint(BalanceSnapshotService snapshots) {
+        return new BalanceSnapshotEndpoint(snapshots);
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "app.ledger.snapshots.enabled", havingValue = "true")
+    static class Scheduling {
+        private final BalanceSnapshotEndpoint endpoint;
+
+        Scheduling(BalanceSnapshotEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Scheduled(fixedDelayString = "${app.ledger.snapshots.interval:5m}",
+                initialDelayString = "${app.ledger.snapshots.interval:5m}")
+        void refresh() {
+            endpoint.refresh(null);
+        }
+    }
+
+    @Endpoint(id = "balancesnapshots")
+    public static class BalanceSnapshotEndpoint {
+        private final BalanceSnapshotService snapshots;
+        private final AtomicReference<BalanceSnapshotService.RefreshResult> last = new AtomicReference<>();
+
+        BalanceSnapshotEndpoint(BalanceSnapshotService snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        @ReadOperation
+        public BalanceSnapshotService.RefreshResult lastRefresh() {
+            return last.get();
+        }
+
+        @WriteOperation
+        public synchronized BalanceSnapshotService.RefreshResult refresh(@Nullable Boolean restore) {
+            BalanceSnapshotService.RefreshResult result = snapshots.refresh(Boolean.TRUE.equals(restore));
+            last.set(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pismo.config;
+
+import com.example.pismo.service.StripedBalances;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+
+/**
+ * Striped balances ({@code app.balances.stripes.enabled=true}): accounts are striped through the
+ * {@code balancestripes} actuator endpoint ({@code GET} lists them, {@code POST /{accountId}} with
+ * {@code {"stripes": N}} sets the count, 0 turns it off, and {@code POST} compacts now), and every instance
+ * folds the stripes back into the account rows on a fixed delay ({@code app.balances.stripes.compaction.interval}).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.balances.stripes.enabled", havingValue = "true")
+public class BalanceStripeConfig {
+    private final StripedBalances stripedBalances;
+
+    BalanceStripeConfig(StripedBalances stripedBalances) {
+        this.stripedBalances = stripedBalances;
+    }
+
+    @Bean
+    public BalanceStripeEndpoint balanceStripeEndpoint() {
+        return new BalanceStripeEndpoint(stripedBalances);
+    }
+
+    @Scheduled(fixedDelayString = "${app.balances.stripes.compaction.interval:PT1S}",
+            initialDelayString = "${app.balances.stripes.compaction.interval:PT1S}")
+    void compact() {
+        stripedBalances.compact();
+    }
+
+    @Endpoint(id = "balancestripes")
+    public static class BalanceStripeEndpoint {
+        private final StripedBalances stripedBalances;
+
+        BalanceStripeEndpoint(StripedBalances stripedBalances) {
+            this.stripedBalances = stripedBalances;
+        }
+
+        public record StripeResult(Long accountId, int stripes) {
+        }
+
+        public record CompactionResult(int accountsFolded) {
+        }
+
+        @ReadOperation
+        public Map<Long, Integer> stripedAccounts() {
+            return stripedBalances.configured();
+        }
+
+        @WriteOperation
+        public StripeResult configure(@Selector Long accountId, int stripes) {
+            return new StripeResult(accountId, stripedBalances.configure(accountId, stripes));
+        }
+
+        @WriteOperation
+        public CompactionResult compact() {
+            return new CompactionResult(stripedBalances.compact());
+        }
+    }
+}
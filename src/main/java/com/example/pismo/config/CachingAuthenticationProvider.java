@@ -0,0 +1,108 @@
+package com.example.pismo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Verifies a username/password pair once through the delegate (BCrypt) and then serves repeats from a
+ * bounded, TTL-expiring cache. Entries are keyed on an HMAC of the credentials (the decoded Basic
+ * Authorization header) under a per-process random key, so the cache never holds a password or an
+ * offline-crackable hash of one.
+ *
+ * The {@link UserDetailsService} stays the source of truth: every hit reloads the user and is only
+ * honoured while the stored password hash is the one that was verified and the account is still usable.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    private final AuthenticationProvider delegate;
+    private final UserDetailsService users;
+    private final Cache<String, String> verified;
+    private final Mac prototype;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, UserDetailsService users,
+                                         Duration ttl, long maxSize) {
+        this.delegate = delegate;
+        this.users = users;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            this.prototype.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) return delegate.authenticate(authentication);
+
+        String key = digest(username + ':' + credentials);
+        String verifiedHash = verified.getIfPresent(key);
+        if (verifiedHash != null) {
+            UserDetails user = currentUser(username);
+            if (user != null && verifiedHash.equals(user.getPassword()) && usable(user)) {
+                return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+            }
+            verified.invalidate(key);
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        // the principal still carries the hash that was just checked; ProviderManager erases it after we return
+        if (result != null && result.getPrincipal() instanceof UserDetails user && user.getPassword() != null) {
+            verified.put(key, user.getPassword());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    public void invalidateAll() {
+        verified.invalidateAll();
+    }
+
+    private UserDetails currentUser(String username) {
+        try {
+            return users.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static boolean usable(UserDetails user) {
+        return user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired()
+                && user.isCredentialsNonExpired();
+    }
+
+    private String digest(String value) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return Base64.getEncoder().encodeToString(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pismo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Request execution mode. {@code spring.threads.virtual.enabled=true} moves Tomcat request handling, and
+ * with it every blocking JDBC call in the services, onto virtual threads; the limiter keeps them from
+ * stampeding the connection pool.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.execution.limiter.enabled", havingValue = "true")
+    public DataSourceConcurrencyLimiter dataSourceConcurrencyLimiter(
+            DataSource dataSource,
+            @Value("${app.execution.limiter.max-concurrent:0}") int maxConcurrent,
+            @Value("${app.execution.limiter.acquire-timeout:2s}") Duration acquireTimeout) {
+        // 0 = follow the pool size
+        if (maxConcurrent <= 0) {
+            maxConcurrent = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        }
+        return new DataSourceConcurrencyLimiter(maxConcurrent, acquireTimeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.execution.limiter.enabled", havingValue = "true")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer dataSourceConcurrencyLimiterRegistration(DataSourceConcurrencyLimiter limiter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(limiter).addPathPatterns("/accounts/**", "/transactions/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.pismo.config;
+
+import com.example.pismo.dto.DtoJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request and response bodies of the account and transaction endpoints go through {@link DtoJsonModule}'s
+ * streaming codecs. Boot installs every {@link Module} bean into the application {@code ObjectMapper}, so the
+ * MVC message converters, the WebFlux codecs and the NDJSON batch reader all pick them up;
+ * {@code app.json.streaming-codecs.enabled=false} falls back to plain record databinding.
+ */
+@Configuration
+public class JsonCodecConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.streaming-codecs.enabled", havingValue = "true", matchIfMissing = true)
+    public Module dtoJsonModule() {
+        return new DtoJsonModule();
+    }
+}
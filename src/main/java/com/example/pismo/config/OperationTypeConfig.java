@@ -0,0 +1,75 @@
+package com.example.pismo.config;
+
+import com.example.pismo.entity.OperationType;
+import com.example.pismo.service.OperationTypeRules;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Operation types are managed at runtime through the {@code operationtypes} actuator endpoint: {@code GET} lists
+ * them, {@code POST /{id}} creates or replaces one and {@code POST} recompiles the rule table from the database.
+ * Every instance also recompiles on a fixed delay ({@code app.operation-types.refresh.interval}), so a change
+ * made through one instance, or in SQL, reaches the others.
+ */
+@Configuration
+public class OperationTypeConfig {
+
+    @Bean
+    public OperationTypeEndpoint operationTypeEndpoint(OperationTypeRules rules) {
+        return new OperationTypeEndpoint(rules);
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "app.operation-types.refresh.enabled", havingValue = "true", matchIfMissing = true)
+    static class Scheduling {
+        private final OperationTypeRules rules;
+
+        Scheduling(OperationTypeRules rules) {
+            this.rules = rules;
+        }
+
+        @Scheduled(fixedDelayString = "${app.operation-types.refresh.interval:PT30S}",
+                initialDelayString = "${app.operation-types.refresh.interval:PT30S}")
+        void reload() {
+            rules.reload();
+        }
+    }
+
+    @Endpoint(id = "operationtypes")
+    public static class OperationTypeEndpoint {
+        private final OperationTypeRules rules;
+
+        OperationTypeEndpoint(OperationTypeRules rules) {
+            this.rules = rules;
+        }
+
+        public record ReloadResult(int enabledTypes) {
+        }
+
+        @ReadOperation
+        public List<OperationType> operationTypes() {
+            return rules.findAll();
+        }
+
+        @WriteOperation
+        public OperationType save(@Selector int id, String description, boolean credit, boolean limitChecked,
+                                  boolean enabled) {
+            return rules.save(id, description, credit, limitChecked, enabled);
+        }
+
+        @WriteOperation
+        public ReloadResult reload() {
+            return new ReloadResult(rules.reload());
+        }
+    }
+}
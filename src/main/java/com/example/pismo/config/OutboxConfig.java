@@ -0,0 +1,62 @@
+package com.example.pismo.config;
+
+import com.example.pismo.outbox.FileOutboxSink;
+import com.example.pismo.outbox.LogOutboxSink;
+import com.example.pismo.outbox.OutboxSink;
+import com.example.pismo.outbox.TransactionEventSubscribers;
+import com.example.pismo.outbox.TransactionOutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transaction event outbox ({@code app.outbox.enabled=true}): posting writes an outbox row per transaction and
+ * the relay publishes them to every {@link OutboxSink} bean. The in-process {@link TransactionEventSubscribers}
+ * is always one of them; {@code app.outbox.sink.file} adds an NDJSON file and {@code app.outbox.sink.log} the
+ * {@code pismo.outbox} logger. Further sinks (a broker, say) are just more {@code OutboxSink} beans.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public TransactionEventSubscribers transactionEventSubscribers() {
+        return new TransactionEventSubscribers();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.outbox.sink.file")
+    public FileOutboxSink fileOutboxSink(@Value("${app.outbox.sink.file}") Path file, ObjectMapper om)
+            throws IOException {
+        return new FileOutboxSink(file, om);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.outbox.sink.log", havingValue = "true")
+    public LogOutboxSink logOutboxSink(ObjectMapper om) {
+        return new LogOutboxSink(om);
+    }
+
+    @Bean
+    public TransactionOutboxRelay transactionOutboxRelay(
+            JdbcTemplate jdbc,
+            PlatformTransactionManager txManager,
+            List<OutboxSink> sinks,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.outbox.batch-size:500}") int batchSize,
+            @Value("${app.outbox.poll-interval:200ms}") Duration pollInterval,
+            @Value("${app.outbox.max-backoff:30s}") Duration maxBackoff) {
+        return new TransactionOutboxRelay(jdbc, txManager, sinks, meterRegistry, batchSize, pollInterval, maxBackoff);
+    }
+}
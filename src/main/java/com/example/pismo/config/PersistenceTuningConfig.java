@@ -0,0 +1,49 @@
+package com.example.pismo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The part of the persistence tuning (see {@code spring.datasource.hikari} and {@code spring.jpa} in
+ * application.yml) that properties cannot express: the connection pool is sized from the core count as
+ * {@code cores * connections-per-core + spindles}, after HikariCP's pool sizing guidance, unless a profile
+ * sets {@code spring.datasource.hikari.maximum-pool-size} itself. The pool stays fixed-size (Hikari's
+ * default minimum-idle), so it never opens connections under load.
+ */
+@Configuration
+public class PersistenceTuningConfig {
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceTuningConfig.class);
+
+    // static: post-processors are created before the other beans of this class could be
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment env) {
+        boolean enabled = env.getProperty("app.persistence.pool.size-from-cores", Boolean.class, true);
+        int perCore = env.getProperty("app.persistence.pool.connections-per-core", Integer.class, 2);
+        int spindles = env.getProperty("app.persistence.pool.spindles", Integer.class, 1);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the pool starts on the first getConnection, so its size can still change here
+                if (enabled && bean instanceof HikariDataSource hikari && !env.containsProperty(MAXIMUM_POOL_SIZE)) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int size = poolSize(cores, perCore, spindles);
+                    hikari.setMaximumPoolSize(size);
+                    log.info("Sized {} to {} connections ({} cores x {} + {})",
+                            hikari.getPoolName() != null ? hikari.getPoolName() : beanName, size, cores, perCore, spindles);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(int cores, int connectionsPerCore, int spindles) {
+        return Math.max(2, cores * connectionsPerCore + spindles);
+    }
+}
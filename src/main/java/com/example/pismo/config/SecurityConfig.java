@@ -1,9 +1,14 @@
 package com.example.pismo.config;
 
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -12,6 +17,10 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class SecurityConfig {
@@ -24,7 +33,9 @@ public class SecurityConfig {
     private String rawPassword;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public SecurityFilterChain filterChain(HttpSecurity http, UserDetailsService users,
+                                           ObjectProvider<SignedTokenService> tokens) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // stateless API
                 .headers(h -> h.frameOptions(f -> f.sameOrigin())) // allow H2 console frames
@@ -33,13 +44,18 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
-                                "/h2-console/**"
+                                "/h2-console/**",
+                                "/actuator/health"
                         ).permitAll()
                         // everything else needs auth
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults()); // Basic auth
 
+        // optional stateless bearer tokens, checked before Basic
+        tokens.ifAvailable(t -> http.addFilterBefore(
+                new SignedTokenAuthenticationFilter(t, users), BasicAuthenticationFilter.class));
+
         return http.build();
     }
 
@@ -56,5 +72,25 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
 
+    // BCrypt runs once per credential; repeats are served from the cache until the TTL expires
+    @Bean
+    public AuthenticationProvider authenticationProvider(
+            UserDetailsService users, PasswordEncoder encoder,
+            @Value("${app.security.auth-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${app.security.auth-cache.ttl:5m}") Duration ttl,
+            @Value("${app.security.auth-cache.max-size:10000}") long maxSize) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(users);
+        dao.setPasswordEncoder(encoder);
+        return cacheEnabled ? new CachingAuthenticationProvider(dao, users, ttl, maxSize) : dao;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+    public SignedTokenService signedTokenService(
+            @Value("${app.security.token.secret:}") String secret,
+            @Value("${app.security.token.ttl:15m}") Duration ttl) {
+        return new SignedTokenService(secret, ttl, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.pismo.config;
+
+import com.example.pismo.archive.TransactionArchive;
+import com.example.pismo.archive.TransactionArchiver;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Transaction archival ({@code app.transactions.archive.enabled=true}): cold months are moved out of
+ * {@code transactions} into segment files on a fixed delay ({@code app.transactions.archive.interval}), and on
+ * demand through the {@code transactionarchive} actuator endpoint ({@code GET} lists the segments, {@code POST}
+ * archives now).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.transactions.archive.enabled", havingValue = "true")
+public class TransactionArchiveConfig {
+    private final TransactionArchiver archiver;
+
+    TransactionArchiveConfig(TransactionArchiver archiver) {
+        this.archiver = archiver;
+    }
+
+    @Bean
+    public TransactionArchiveEndpoint transactionArchiveEndpoint(TransactionArchive archive) {
+        return new TransactionArchiveEndpoint(archive, archiver);
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.archive.interval:PT1H}",
+            initialDelayString = "${app.transactions.archive.interval:PT1H}")
+    void archive() {
+        archiver.archive();
+    }
+
+    @Endpoint(id = "transactionarchive")
+    public static class TransactionArchiveEndpoint {
+        private final TransactionArchive archive;
+        private final TransactionArchiver archiver;
+
+        TransactionArchiveEndpoint(TransactionArchive archive, TransactionArchiver archiver) {
+            this.archive = archive;
+            this.archiver = archiver;
+        }
+
+        @ReadOperation
+        public List<TransactionArchive.Segment> segments() {
+            return archive.segments();
+        }
+
+        @WriteOperation
+        public TransactionArchiver.ArchiveResult archive() {
+            return archiver.archive();
+        }
+    }
+}
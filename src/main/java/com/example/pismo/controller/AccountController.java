@@ -2,19 +2,36 @@ package com.example.pismo.controller;
 
 import com.example.pismo.dto.AccountCreateRequest;
 import com.example.pismo.dto.AccountResponse;
+import com.example.pismo.dto.AccountSummaryResponse;
 import com.example.pismo.service.AccountService;
+import com.example.pismo.service.StatementService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/accounts")
 public class AccountController {
     private final AccountService accountService;
+    private final StatementService statementService;
+    private final ObjectWriter summaryWriter;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, StatementService statementService, ObjectMapper om) {
         this.accountService = accountService;
+        this.statementService = statementService;
+        this.summaryWriter = om.writerFor(AccountSummaryResponse.class);
     }
 
     @Operation(summary = "Create account")
@@ -30,4 +47,35 @@ public class AccountController {
         return accountService.get(id);
     }
 
+    @Operation(summary = "Debit/credit totals per operation type, optionally within [from, to) on event_date")
+    @GetMapping("/{id}/summary")
+    public AccountSummaryResponse summary(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to
+    ) {
+        return statementService.summarize(id, from, to);
+    }
+
+    @Operation(summary = "Stream summaries for every account in an id range as NDJSON (statement run)")
+    @GetMapping("/statements")
+    public void statements(
+            @RequestParam(name = "from_account_id", required = false) Long fromAccountId,
+            @RequestParam(name = "to_account_id", required = false) Long toAccountId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(TransactionController.NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        ServletOutputStream out = response.getOutputStream();
+        statementService.statements(fromAccountId, toAccountId, from, to, summary -> {
+            try {
+                out.write(summaryWriter.writeValueAsBytes(summary));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.pismo.controller;
+
+import com.example.pismo.config.SignedTokenService;
+import com.example.pismo.dto.AuthTokenResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/auth")
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class AuthTokenController {
+    private final SignedTokenService tokens;
+
+    public AuthTokenController(SignedTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Operation(summary = "Exchange Basic credentials for a signed bearer token")
+    @PostMapping("/token")
+    @ResponseStatus(HttpStatus.CREATED)
+    public AuthTokenResponse issue(Authentication authentication) {
+        var issued = tokens.issue(authentication.getName());
+        return new AuthTokenResponse(issued.token(), "Bearer", issued.expiresAt());
+    }
+}
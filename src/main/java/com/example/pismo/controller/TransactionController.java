@@ -1,48 +1,160 @@
 package com.example.pismo.controller;
 
 import com.example.pismo.dto.AccountResponse;
+import com.example.pismo.dto.BatchTransactionResponse;
 import com.example.pismo.dto.TransactionRequest;
 import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.dto.TransactionSliceResponse;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.service.BatchTransactionService;
+import com.example.pismo.service.GroupCommitWriter;
+import com.example.pismo.service.IdempotentTransactionService;
+import com.example.pismo.service.LedgerEngine;
+import com.example.pismo.service.TransactionExportService;
 import com.example.pismo.service.TransactionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/transactions")
 public class TransactionController {
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final TransactionService txService;
+    private final BatchTransactionService batchService;
+    private final IdempotentTransactionService idempotentService;
+    private final TransactionExportService exportService;
+    private final LedgerEngine ledgerEngine; // null unless app.ledger.engine.enabled
+    private final GroupCommitWriter groupCommit; // null unless app.transactions.group-commit.enabled
+    private final ObjectReader ndjsonReader;
 
-    public TransactionController(TransactionService txService) {
+    public TransactionController(TransactionService txService,
+                                 BatchTransactionService batchService,
+                                 IdempotentTransactionService idempotentService,
+                                 TransactionExportService exportService,
+                                 ObjectProvider<LedgerEngine> ledgerEngine,
+                                 ObjectProvider<GroupCommitWriter> groupCommit,
+                                 ObjectMapper om) {
         this.txService = txService;
+        this.batchService = batchService;
+        this.idempotentService = idempotentService;
+        this.exportService = exportService;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+        this.groupCommit = groupCommit.getIfAvailable();
+        this.ndjsonReader = om.readerFor(TransactionRequest.class);
     }
 
-    @Operation(summary = "Create transaction")
+    @Operation(summary = "Create transaction; retries carrying the same Idempotency-Key return the original result")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public TransactionResponse post(@RequestBody @Valid TransactionRequest req) {
+    public TransactionResponse post(@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    @RequestBody @Valid TransactionRequest req,
+                                    HttpServletResponse response) {
+        if (idempotencyKey != null) {
+            IdempotentTransactionService.Result result = idempotentService.post(idempotencyKey, req);
+            if (result.replayed()) response.setHeader(IDEMPOTENT_REPLAYED, "true");
+            return result.response();
+        }
+        if (ledgerEngine != null) return ledgerEngine.post(req);
+        if (groupCommit != null) return groupCommit.post(req);
         return txService.post(req);
     }
 
+    @Operation(summary = "Create transactions in bulk (JSON array); results are reported per item")
+    @PostMapping(value = "/batch", consumes = "application/json")
+    public BatchTransactionResponse postBatch(@RequestBody List<TransactionRequest> items) {
+        return batchService.post(items);
+    }
+
+    @Operation(summary = "Create transactions in bulk (one JSON object per line)")
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public BatchTransactionResponse postBatchNdjson(InputStream body) throws IOException {
+        List<TransactionRequest> items = new ArrayList<>();
+        try (MappingIterator<TransactionRequest> it = ndjsonReader.readValues(body)) {
+            while (it.hasNextValue()) {
+                items.add(it.nextValue());
+                batchService.checkSize(items.size());
+            }
+        } catch (BusinessException tooLarge) {
+            throw tooLarge;
+        } catch (IOException | RuntimeException ex) {
+            throw new BusinessException("INVALID_BATCH", "Malformed NDJSON at item " + items.size());
+        }
+        return batchService.post(items);
+    }
+
     @Operation(summary = "Get transaction by id")
     @GetMapping("/{id}")
     public TransactionResponse get(@PathVariable("id") Long id) {
         return txService.get(id);
     }
 
-    @Operation(summary = "List transactions by account (paged)")
+    @Operation(summary = "List transactions by account (paged), with event_date from `from` (default: the recent partitions); "
+            + "a `from` that reaches archived months is rejected with ARCHIVED_PERIOD")
     @GetMapping
     public Page<TransactionResponse> listByAccount(
             @RequestParam(name = "account_id") Long accountId,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "20") int size
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        return txService.findByAccount(accountId, pageable);
+        return txService.findByAccount(accountId, from, pageable);
     }
 
+    @Operation(summary = "List transactions by account, newest first, using an opaque cursor (no total count); "
+            + "event_date from `from` (default: the recent partitions), archived months included")
+    @GetMapping("/history")
+    public TransactionSliceResponse history(
+            @RequestParam(name = "account_id") Long accountId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from
+    ) {
+        return txService.findByAccountAfterCursor(accountId, cursor, size, from);
+    }
+
+    @Operation(summary = "Stream an account's full history, archived months included, as NDJSON (default) or CSV, optionally within [from, to) on event_date")
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(name = "account_id") Long accountId,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            HttpServletResponse response
+    ) throws IOException {
+        TransactionExportService.Format fmt = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> TransactionExportService.Format.NDJSON;
+            case "csv" -> TransactionExportService.Format.CSV;
+            default -> throw new BusinessException("INVALID_FORMAT", "format must be ndjson or csv");
+        };
+        exportService.validate(accountId, from, to);
+
+        response.setContentType(fmt == TransactionExportService.Format.CSV ? CSV : NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        exportService.export(accountId, from, to, fmt, response.getOutputStream());
+    }
 }
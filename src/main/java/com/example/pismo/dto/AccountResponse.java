@@ -1,5 +1,6 @@
 package com.example.pismo.dto;
 
+import com.example.pismo.entity.Cents;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
@@ -11,4 +12,8 @@ public record AccountResponse(
         String documentNumber,
         BigDecimal creditLimit
 
-) {}
+) {
+    public static AccountResponse ofCents(Long accountId, String documentNumber, long creditLimit) {
+        return new AccountResponse(accountId, documentNumber, Cents.toDecimal(creditLimit));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/** Totals of an account's transactions with {@code from <= event_date < to}; debits are negative. */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record AccountSummaryResponse(
+        Long accountId,
+        OffsetDateTime from,
+        OffsetDateTime to,
+        long transactionCount,
+        BigDecimal debits,
+        BigDecimal credits,
+        BigDecimal net,
+        List<OperationTypeTotal> operationTypes
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.time.Instant;
+
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record AuthTokenResponse(String token, String tokenType, Instant expiresAt) {
+}
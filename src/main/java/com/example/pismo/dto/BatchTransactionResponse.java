@@ -0,0 +1,10 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record BatchTransactionResponse(int accepted, int rejected, List<BatchTransactionResult> results) {
+}
@@ -0,0 +1,21 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchTransactionResult(int index, Status status, TransactionResponse transaction,
+                                     String error, String message) {
+
+    public enum Status { CREATED, REJECTED }
+
+    public static BatchTransactionResult created(int index, TransactionResponse transaction) {
+        return new BatchTransactionResult(index, Status.CREATED, transaction, null, null);
+    }
+
+    public static BatchTransactionResult rejected(int index, String error, String message) {
+        return new BatchTransactionResult(index, Status.REJECTED, null, error, message);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Hand-written streaming codecs for the four records on the hot endpoints ({@link AccountCreateRequest},
+ * {@link AccountResponse}, {@link TransactionRequest}, {@link TransactionResponse}), in place of reflective
+ * record databinding. The wire format is the one {@code @JsonNaming(SnakeCaseStrategy)} produces: same field
+ * names and order, nulls written, numbers as the generator's number settings write them. Reading honours the
+ * mapper's settings too: tokens of the expected type are read directly, anything else (a quoted number, a
+ * float for an id) goes through the standard deserializer for the field's type, and unknown properties are
+ * handled per {@code FAIL_ON_UNKNOWN_PROPERTIES}.
+ */
+public class DtoJsonModule extends SimpleModule {
+    private static final SerializableString ACCOUNT_ID = new SerializedString("account_id");
+    private static final SerializableString DOCUMENT_NUMBER = new SerializedString("document_number");
+    private static final SerializableString CREDIT_LIMIT = new SerializedString("credit_limit");
+    private static final SerializableString TRANSACTION_ID = new SerializedString("transaction_id");
+    private static final SerializableString OPERATION_TYPE_ID = new SerializedString("operation_type_id");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+
+    public DtoJsonModule() {
+        super("pismo-dto-codecs");
+        addSerializer(AccountResponse.class, new AccountResponseSerializer());
+        addSerializer(TransactionResponse.class, new TransactionResponseSerializer());
+        addDeserializer(AccountCreateRequest.class, new AccountCreateRequestDeserializer());
+        addDeserializer(TransactionRequest.class, new TransactionRequestDeserializer());
+    }
+
+    private static final class AccountResponseSerializer extends JsonSerializer<AccountResponse> {
+        @Override
+        public void serialize(AccountResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(ACCOUNT_ID);
+            writeNumber(gen, value.accountId());
+            gen.writeFieldName(DOCUMENT_NUMBER);
+            gen.writeString(value.documentNumber());
+            gen.writeFieldName(CREDIT_LIMIT);
+            writeNumber(gen, value.creditLimit());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class TransactionResponseSerializer extends JsonSerializer<TransactionResponse> {
+        @Override
+        public void serialize(TransactionResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(TRANSACTION_ID);
+            writeNumber(gen, value.transactionId());
+            gen.writeFieldName(ACCOUNT_ID);
+            writeNumber(gen, value.accountId());
+            gen.writeFieldName(OPERATION_TYPE_ID);
+            writeNumber(gen, value.operationTypeId());
+            gen.writeFieldName(AMOUNT);
+            writeNumber(gen, value.amount());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class AccountCreateRequestDeserializer extends JsonDeserializer<AccountCreateRequest> {
+        @Override
+        public AccountCreateRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            startObject(p, ctxt, AccountCreateRequest.class);
+            String documentNumber = null;
+            BigDecimal creditLimit = null;
+            for (String name = fieldName(p); name != null; name = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (name) {
+                    case "document_number" -> documentNumber = token == JsonToken.VALUE_STRING ? p.getText()
+                            : readOther(p, ctxt, token, String.class);
+                    case "credit_limit" -> creditLimit = readDecimal(p, ctxt, token);
+                    default -> ctxt.handleUnknownProperty(p, this, AccountCreateRequest.class, name);
+                }
+            }
+            return new AccountCreateRequest(documentNumber, creditLimit);
+        }
+    }
+
+    private static final class TransactionRequestDeserializer extends JsonDeserializer<TransactionRequest> {
+        @Override
+        public TransactionRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            startObject(p, ctxt, TransactionRequest.class);
+            Long accountId = null;
+            Integer operationTypeId = null;
+            BigDecimal amount = null;
+            for (String name = fieldName(p); name != null; name = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (name) {
+                    case "account_id" -> accountId = readLong(p, ctxt, token);
+                    case "operation_type_id" -> operationTypeId = readInteger(p, ctxt, token);
+                    case "amount" -> amount = readDecimal(p, ctxt, token);
+                    default -> ctxt.handleUnknownProperty(p, this, TransactionRequest.class, name);
+                }
+            }
+            return new TransactionRequest(accountId, operationTypeId, amount);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+
+    private static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+
+    private static void writeNumber(JsonGenerator gen, BigDecimal value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+
+    /** Leaves the parser on the first field name (or the closing brace of an empty object). */
+    private static void startObject(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            p.nextToken();
+        } else if (p.currentToken() != JsonToken.FIELD_NAME) {
+            ctxt.handleUnexpectedToken(type, p);
+        }
+    }
+
+    private static String fieldName(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.FIELD_NAME ? p.currentName() : null;
+    }
+
+    private static Long readLong(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            return p.getLongValue();
+        }
+        return readOther(p, ctxt, token, Long.class);
+    }
+
+    private static Integer readInteger(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+            return p.getIntValue();
+        }
+        return readOther(p, ctxt, token, Integer.class);
+    }
+
+    private static BigDecimal readDecimal(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) return p.getDecimalValue();
+        return readOther(p, ctxt, token, BigDecimal.class);
+    }
+
+    /** Nulls, quoted numbers and other coercions, exactly as the standard deserializers allow them. */
+    private static <T> T readOther(JsonParser p, DeserializationContext ctxt, JsonToken token, Class<T> type)
+            throws IOException {
+        if (token == JsonToken.VALUE_NULL) return null;
+        return ctxt.readValue(p, type);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.math.BigDecimal;
+
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record OperationTypeTotal(Integer operationTypeId, long count, BigDecimal total) {
+}
@@ -0,0 +1,19 @@
+package com.example.pismo.dto;
+
+import com.example.pismo.entity.Cents;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/** A posted transaction as the outbox publishes it; {@code transaction_id} is the key to deduplicate on. */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record TransactionEvent(Long transactionId, Long accountId, Integer operationTypeId, BigDecimal amount,
+                               OffsetDateTime eventDate) {
+
+    public static TransactionEvent ofCents(Long transactionId, Long accountId, Integer operationTypeId, long amount,
+                                           OffsetDateTime eventDate) {
+        return new TransactionEvent(transactionId, accountId, operationTypeId, Cents.toDecimal(amount), eventDate);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.pismo.dto;
 
+import com.example.pismo.entity.Cents;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import jakarta.validation.constraints.NotNull;
@@ -9,4 +10,9 @@ import java.math.BigDecimal;
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public record TransactionRequest(@NotNull Long accountId, @NotNull Integer operationTypeId,
                                  @NotNull BigDecimal amount) {
+
+    /** Rounded half-up to whole cents; throws {@link ArithmeticException} when it does not fit a long. */
+    public long amountInCents() {
+        return Cents.fromDecimal(amount);
+    }
 }
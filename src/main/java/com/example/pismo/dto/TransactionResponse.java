@@ -1,5 +1,6 @@
 package com.example.pismo.dto;
 
+import com.example.pismo.entity.Cents;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
@@ -8,4 +9,8 @@ import java.time.OffsetDateTime;
 
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public record TransactionResponse(Long transactionId, Long accountId, Integer operationTypeId, BigDecimal amount) {
+
+    public static TransactionResponse ofCents(Long transactionId, Long accountId, Integer operationTypeId, long amount) {
+        return new TransactionResponse(transactionId, accountId, operationTypeId, Cents.toDecimal(amount));
+    }
 }
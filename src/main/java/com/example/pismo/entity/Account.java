@@ -1,5 +1,4 @@
 package com.example.pismo.entity;// imports
-import java.math.BigDecimal;
 import jakarta.persistence.*;
 
 @Entity
@@ -7,46 +6,38 @@ import jakarta.persistence.*;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("accounts_seq")
     @Column(name = "account_id")
     private Long id;
 
     @Column(name = "document_number", nullable = false, unique = true)
     private String documentNumber;
 
+    // money in cents (see Cents); the columns stay numeric(19,2)
+    @Convert(converter = CentsConverter.class)
     @Column(name = "available_balance", nullable = false, precision = 19, scale = 2)
-    private BigDecimal availableBalance = BigDecimal.ZERO.setScale(2, BigDecimal.ROUND_HALF_UP);
+    private long availableBalance;
 
+    @Convert(converter = CentsConverter.class)
     @Column(name = "credit_limit", nullable = false, precision = 19, scale = 2)
-    private BigDecimal creditLimit;
+    private long creditLimit;
 
     protected Account() {}
 
-    public Account(String documentNumber, BigDecimal creditLimit) {
+    public Account(String documentNumber, long creditLimit) {
         this.documentNumber = documentNumber;
-        this.availableBalance = BigDecimal.ZERO.setScale(2, BigDecimal.ROUND_HALF_UP);
-        this.creditLimit = creditLimit.setScale(2, BigDecimal.ROUND_HALF_UP);
+        this.creditLimit = creditLimit;
     }
 
     public Long getId() { return id; }
     public String getDocumentNumber() { return documentNumber; }
-    public BigDecimal getAvailableBalance() { return availableBalance; }
+    public long getAvailableBalance() { return availableBalance; }
 
-    public void addToBalance(BigDecimal delta) {
-        this.availableBalance = this.availableBalance
-                .add(delta)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
+    public void addToBalance(long delta) {
+        this.availableBalance = Cents.add(this.availableBalance, delta);
     }
 
-    public BigDecimal getCreditLimit() {
+    public long getCreditLimit() {
         return creditLimit;
     }
-
-    @PrePersist
-    @PreUpdate
-    private void normalizeScale() {
-        if (availableBalance != null) {
-            availableBalance = availableBalance.setScale(2, BigDecimal.ROUND_HALF_UP);
-        }
-    }
 }
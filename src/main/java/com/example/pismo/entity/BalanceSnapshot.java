@@ -0,0 +1,43 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Latest checkpoint of an account's balance: the sum of all of its transactions up to and including
+ * {@code lastTransactionId}. The current balance is this plus the account's transactions after it.
+ */
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot {
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
+    private long balance;
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+    @Column(name = "taken_at", nullable = false)
+    private OffsetDateTime takenAt;
+
+    protected BalanceSnapshot() {
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public OffsetDateTime getTakenAt() {
+        return takenAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One of the N sub-balances of a striped account. The account's balance is {@code accounts.available_balance}
+ * plus the balance of all of its stripes; credits land on one stripe picked at random, so concurrent credits
+ * lock different rows, and the compactor folds the stripes back into the account row. Rows are written and read
+ * with plain JDBC by {@code StripedBalances}; the entity only declares the table.
+ */
+@Entity
+@Table(name = "account_balance_stripes")
+@IdClass(BalanceStripe.Key.class)
+public class BalanceStripe {
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    @Id
+    @Column(name = "stripe")
+    private int stripe;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
+    private long balance;
+
+    protected BalanceStripe() {
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public int getStripe() {
+        return stripe;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public static class Key implements Serializable {
+        private Long accountId;
+        private int stripe;
+
+        protected Key() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(accountId, k.accountId) && stripe == k.stripe;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, stripe);
+        }
+    }
+}
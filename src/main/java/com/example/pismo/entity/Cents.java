@@ -0,0 +1,33 @@
+package com.example.pismo.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a primitive {@code long} count of minor units (cents, scale 2). Entities and the posting
+ * arithmetic work on these so the hot path allocates nothing; {@link BigDecimal} only appears at the
+ * API boundary (the DTOs) and at the JDBC boundary ({@link CentsConverter}). Every operation that can
+ * overflow is checked and throws {@link ArithmeticException} instead of wrapping.
+ */
+public final class Cents {
+    public static final int SCALE = 2;
+
+    private Cents() {}
+
+    /** Rounds half-up to whole cents, as the numeric(19,2) columns always did. */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long negate(long cents) {
+        return Math.negateExact(cents);
+    }
+}
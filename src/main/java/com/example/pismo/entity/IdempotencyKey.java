@@ -0,0 +1,74 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Durable record of an {@code Idempotency-Key} and the transaction it produced. The key is the primary
+ * key, so two instances racing on the same key cannot both commit. Rows are written in the same database
+ * transaction as the {@link Transaction} they point at.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey implements Persistable<String> {
+    public static final int MAX_LENGTH = 255;
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyKey.MAX_LENGTH)
+    private String key;
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(name = "operation_type_id", nullable = false)
+    private Integer operationTypeId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private long amount;
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    protected IdempotencyKey() {
+    }
+
+    public IdempotencyKey(String key, Long transactionId, Long accountId, Integer operationTypeId, long amount) {
+        this.key = key;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.operationTypeId = operationTypeId;
+        this.amount = amount;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    // keys are only ever inserted, so save() goes straight to INSERT instead of merge's SELECT first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Integer getOperationTypeId() {
+        return operationTypeId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A kind of transaction and how posting treats it: credits add the amount to the balance and debits subtract
+ * it, and a limit-checked type is rejected when it would take the balance past the credit limit. Disabled types
+ * are refused. Posting reads these through {@code OperationTypeRules}, never from the table.
+ */
+@Entity
+@Table(name = "operation_types")
+public class OperationType {
+    @Id
+    @Column(name = "operation_type_id")
+    private Integer id;
+    @Column(name = "description", nullable = false, length = 100)
+    private String description;
+    @Column(name = "credit", nullable = false)
+    private boolean credit;
+    @Column(name = "limit_checked", nullable = false)
+    private boolean limitChecked;
+    @Column(name = "enabled", nullable = false)
+    private boolean enabled;
+
+    protected OperationType() {
+    }
+
+    public OperationType(Integer id, String description, boolean credit, boolean limitChecked, boolean enabled) {
+        this.id = id;
+        update(description, credit, limitChecked, enabled);
+    }
+
+    public void update(String description, boolean credit, boolean limitChecked, boolean enabled) {
+        this.description = description;
+        this.credit = credit;
+        this.limitChecked = limitChecked;
+        this.enabled = enabled;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isCredit() {
+        return credit;
+    }
+
+    public boolean isLimitChecked() {
+        return limitChecked;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
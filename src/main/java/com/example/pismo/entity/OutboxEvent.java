@@ -0,0 +1,58 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A posted transaction waiting to be published, written in the same database transaction as the
+ * {@link Transaction} itself and deleted once every sink has taken it. The identity id is assigned at insert,
+ * while the account's row lock is held, so an account's events are numbered in the order they were posted.
+ * Rows are written and read with plain JDBC by {@code TransactionOutbox}; the entity only declares the table.
+ */
+@Entity
+@Table(name = "transaction_outbox")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long id;
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(name = "operation_type_id", nullable = false)
+    private Integer operationTypeId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private long amount;
+    @Column(name = "event_date", nullable = false)
+    private OffsetDateTime eventDate;
+
+    protected OutboxEvent() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Integer getOperationTypeId() {
+        return operationTypeId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public OffsetDateTime getEventDate() {
+        return eventDate;
+    }
+}
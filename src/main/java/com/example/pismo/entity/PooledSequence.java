@@ -0,0 +1,22 @@
+package com.example.pismo.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sequence-backed id with Hibernate's pooled (hi/lo style) optimizer: one sequence call reserves a
+ * block of ids, so inserts no longer need a round trip each and Hibernate can batch them. The block
+ * size is shared by every entity and configured with {@value PooledSequenceGenerator#ALLOCATION_SIZE}.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface PooledSequence {
+    /** Name of the database sequence. */
+    String value();
+}
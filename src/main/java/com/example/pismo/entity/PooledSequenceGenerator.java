@@ -0,0 +1,39 @@
+package com.example.pismo.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * {@link SequenceStyleGenerator} configured from {@link PooledSequence}, with the allocation size read
+ * from the Hibernate setting {@value #ALLOCATION_SIZE} (spring.jpa.properties.*).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "pismo.id.allocation_size";
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(SEQUENCE_PARAM, sequenceName);
+        params.setProperty(INCREMENT_PARAM, Integer.toString(allocationSize));
+        params.setProperty(INITIAL_PARAM, "1");
+        params.setProperty(OPT_PARAM, allocationSize > 1
+                ? StandardOptimizerDescriptor.POOLED.getExternalName()
+                : StandardOptimizerDescriptor.NONE.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -2,14 +2,15 @@ package com.example.pismo.entity;
 
 import jakarta.persistence.*;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "transactions", indexes = {@Index(name = "idx_tx_account", columnList = "account_id")})
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_tx_account_id", columnList = "account_id, transaction_id"),
+        @Index(name = "idx_tx_account_type_date", columnList = "account_id, operation_type_id, event_date")})
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("transactions_seq")
     @Column(name = "transaction_id")
     private Long id;
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -17,15 +18,16 @@ public class Transaction {
     private Account account;
     @Column(name = "operation_type_id", nullable = false)
     private Integer operationTypeId;
+    @Convert(converter = CentsConverter.class)
     @Column(name = "amount", nullable = false, precision = 19, scale = 2)
-    private BigDecimal amount;
+    private long amount;
     @Column(name = "event_date", nullable = false)
     private OffsetDateTime eventDate = OffsetDateTime.now();
 
     protected Transaction() {
     }
 
-    public Transaction(Account account, Integer operationTypeId, BigDecimal amount) {
+    public Transaction(Account account, Integer operationTypeId, long amount) {
         this.account = account;
         this.operationTypeId = operationTypeId;
         this.amount = amount;
@@ -43,7 +45,11 @@ public class Transaction {
         return operationTypeId;
     }
 
-    public BigDecimal getAmount() {
+    public long getAmount() {
         return amount;
     }
+
+    public OffsetDateTime getEventDate() {
+        return eventDate;
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.pismo.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Catalog entry of one archive segment: a columnar file holding the {@code transactions} rows of one month that
+ * were moved out of the table. The ranges let readers skip segments without opening them. Rows are written and
+ * read with plain JDBC by {@code TransactionArchiver} and {@code TransactionArchive}; the entity only declares
+ * the table.
+ */
+@Entity
+@Table(name = "transaction_archive_segments")
+public class TransactionArchiveSegment {
+    @Id
+    @Column(name = "file_name", length = 128)
+    private String fileName;
+    @Column(name = "range_start", nullable = false)
+    private OffsetDateTime rangeStart;
+    @Column(name = "range_end", nullable = false)
+    private OffsetDateTime rangeEnd;
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+    @Column(name = "min_account_id", nullable = false)
+    private long minAccountId;
+    @Column(name = "max_account_id", nullable = false)
+    private long maxAccountId;
+    @Column(name = "min_transaction_id", nullable = false)
+    private long minTransactionId;
+    @Column(name = "max_transaction_id", nullable = false)
+    private long maxTransactionId;
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+    @Column(name = "archived_at", nullable = false)
+    private OffsetDateTime archivedAt;
+
+    protected TransactionArchiveSegment() {
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public OffsetDateTime getRangeStart() {
+        return rangeStart;
+    }
+
+    public OffsetDateTime getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinAccountId() {
+        return minAccountId;
+    }
+
+    public long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    public long getMinTransactionId() {
+        return minTransactionId;
+    }
+
+    public long getMaxTransactionId() {
+        return maxTransactionId;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public OffsetDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
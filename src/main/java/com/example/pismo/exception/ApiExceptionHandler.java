@@ -1,19 +1,32 @@
 package com.example.pismo.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class ApiExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    public ApiExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<?> handleBusiness(BusinessException ex) {
+        count(ex.getCode());
         Map<String, Object> body = new HashMap<>();
         body.put("error", ex.getCode());
         body.put("message", ex.getMessage());
@@ -22,18 +35,49 @@ public class ApiExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleValidation(MethodArgumentNotValidException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+
+    // the WebFlux counterpart (reactive profile)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<?> handleValidation(WebExchangeBindException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+
+    private ResponseEntity<?> validationErrors(BindingResult result) {
+        count("VALIDATION_ERROR");
         Map<String, String> errors = new HashMap<>();
-        for (FieldError fe : ex.getBindingResult().getFieldErrors()) {
+        for (FieldError fe : result.getFieldErrors()) {
             errors.put(fe.getField(), fe.getDefaultMessage());
         }
         return ResponseEntity.badRequest().body(errors);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleOverload(RejectedExecutionException ex) {
+        count("OVERLOADED");
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "OVERLOADED");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleOther(Exception ex) {
+        count("INTERNAL_ERROR");
         Map<String, Object> body = new HashMap<>();
         body.put("error", "INTERNAL_ERROR");
         body.put("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
     }
+
+    // codes are a fixed set of constants, so tagging by code keeps the series count bounded
+    private void count(String code) {
+        if (meterRegistry == null) return;
+        Counter.builder("pismo.api.errors")
+                .description("Error responses by error code")
+                .tag("code", code)
+                .register(meterRegistry)
+                .increment();
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends events to a local file, one JSON object per line, flushed after every batch. */
+public class FileOutboxSink implements OutboxSink, DisposableBean {
+    private final ObjectWriter writer;
+    private final BufferedWriter out;
+
+    public FileOutboxSink(Path file, ObjectMapper om) throws IOException {
+        this.writer = om.writerFor(TransactionEvent.class);
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<TransactionEvent> events) throws IOException {
+        for (TransactionEvent event : events) {
+            out.write(writer.writeValueAsString(event));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Logs every event as one JSON line on the {@code pismo.outbox} logger, at INFO. */
+public class LogOutboxSink implements OutboxSink {
+    private static final Logger log = LoggerFactory.getLogger("pismo.outbox");
+
+    private final ObjectWriter writer;
+
+    public LogOutboxSink(ObjectMapper om) {
+        this.writer = om.writerFor(TransactionEvent.class);
+    }
+
+    @Override
+    public void publish(List<TransactionEvent> events) throws IOException {
+        if (!log.isInfoEnabled()) return;
+        for (TransactionEvent event : events) log.info(writer.writeValueAsString(event));
+    }
+}
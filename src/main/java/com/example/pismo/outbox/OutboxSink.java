@@ -0,0 +1,17 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay publishes transaction events; every {@code OutboxSink} bean receives every batch. A
+ * batch is removed from the outbox only once all sinks have returned, so a sink that throws sees the same
+ * events again on the next attempt (at-least-once), and a sink that returned may see them again when another
+ * one failed. Events arrive in posting order per account.
+ */
+public interface OutboxSink {
+
+    /** Called from the relay thread, one batch at a time. */
+    void publish(List<TransactionEvent> events) throws Exception;
+}
@@ -0,0 +1,34 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process subscriptions to the outbox: subscribers are called on the relay thread, in order, for events
+ * published while they are subscribed. A subscriber that throws fails the batch, and every subscriber then
+ * sees it again, so subscribers should deduplicate on {@code transaction_id}.
+ */
+public class TransactionEventSubscribers implements OutboxSink {
+    private final List<Consumer<TransactionEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    public interface Subscription extends AutoCloseable {
+        /** Unsubscribes; the subscriber may still be called once more if a batch is in flight. */
+        @Override
+        void close();
+    }
+
+    public Subscription subscribe(Consumer<TransactionEvent> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        for (Consumer<TransactionEvent> subscriber : subscribers) {
+            for (TransactionEvent event : events) subscriber.accept(event);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes {@code transaction_outbox} rows for newly posted transactions, inside the posting transaction (it
+ * refuses to run outside one), so an event exists exactly when its transaction committed. Does nothing unless
+ * {@code app.outbox.enabled=true}; {@link TransactionOutboxRelay} publishes and removes the rows.
+ */
+@Component
+public class TransactionOutbox {
+    public static final String INSERT = "insert into transaction_outbox"
+            + " (transaction_id, account_id, operation_type_id, amount, event_date) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+
+    public TransactionOutbox(JdbcTemplate jdbc, @Value("${app.outbox.enabled:false}") boolean enabled) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Appends in list order, which is the order the events are published in. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) return;
+        jdbc.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Transaction tx = transactions.get(i);
+                ps.setLong(1, tx.getId());
+                ps.setLong(2, tx.getAccount().getId());
+                ps.setInt(3, tx.getOperationTypeId());
+                ps.setBigDecimal(4, Cents.toDecimal(tx.getAmount()));
+                ps.setObject(5, tx.getEventDate());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return transactions.size();
+            }
+        });
+    }
+}
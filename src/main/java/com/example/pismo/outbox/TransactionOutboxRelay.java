@@ -0,0 +1,179 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+import com.example.pismo.entity.Cents;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains {@code transaction_outbox} on one background thread. Each round runs in one database transaction:
+ * it locks the oldest {@code batch-size} rows in id order, hands them to every {@link OutboxSink}, and deletes
+ * them once all sinks returned. A failing sink rolls the round back, so the same rows come again after a
+ * backoff (at-least-once). While rows keep coming the relay goes straight to the next round; once a round
+ * comes back short it waits {@code poll-interval}.
+ *
+ * Rows are deleted by id rather than up to a watermark: a posting transaction that took a lower id can commit
+ * after a higher one, and is simply picked up by a later round. Within an account that cannot happen, since
+ * the row is inserted under the account's lock, so each account's events are published in posting order
+ * (except credits to a striped account, which lock only their stripe; {@code StripedBalances} only allows
+ * that with {@code app.balances.stripes.unordered-outbox=true}).
+ * Run one relay per database: a second one waits on the first one's row locks and only adds load.
+ */
+public class TransactionOutboxRelay implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TransactionOutboxRelay.class);
+
+    static final String SELECT_BATCH = "select outbox_id, transaction_id, account_id, operation_type_id, amount,"
+            + " event_date from transaction_outbox order by outbox_id limit ? for update";
+    static final String DELETE = "delete from transaction_outbox where outbox_id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long maxBackoffMillis;
+    private final Counter published;
+    private final Counter failures;
+    private final DistributionSummary batchSizes;
+    private final Timer publishTimer;
+    // age of the oldest unpublished event at the last round, 0 when the outbox was empty
+    private volatile double lagSeconds;
+    private volatile boolean running;
+    private Thread relay;
+
+    public TransactionOutboxRelay(JdbcTemplate jdbc,
+                                  PlatformTransactionManager txManager,
+                                  List<OutboxSink> sinks,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  int batchSize,
+                                  Duration pollInterval,
+                                  Duration maxBackoff) {
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.sinks = List.copyOf(sinks);
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.published = Counter.builder("pismo.outbox.published")
+                .description("Transaction events handed to every sink")
+                .register(registry);
+        this.failures = Counter.builder("pismo.outbox.failures")
+                .description("Relay rounds rolled back because a sink or the database failed")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("pismo.outbox.batch.size")
+                .description("Events per relay round")
+                .register(registry);
+        this.publishTimer = Timer.builder("pismo.outbox.publish")
+                .description("Time to read, publish and delete one batch")
+                .register(registry);
+        Gauge.builder("pismo.outbox.lag", this, relay -> relay.lagSeconds)
+                .description("Age of the oldest unpublished transaction event")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        relay = new Thread(this::run, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (relay == null) return;
+        // not interrupt(): that can break the relay's pooled connection mid-statement
+        LockSupport.unpark(relay);
+        try {
+            relay.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relay = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        int consecutiveFailures = 0;
+        while (running) {
+            long waitMillis;
+            try {
+                int count = relayOnce();
+                consecutiveFailures = 0;
+                waitMillis = count < batchSize ? pollIntervalMillis : 0;
+            } catch (RuntimeException ex) {
+                failures.increment();
+                consecutiveFailures++;
+                waitMillis = Math.min(maxBackoffMillis, pollIntervalMillis << Math.min(consecutiveFailures, 16));
+                log.warn("Outbox relay round failed ({} in a row), retrying in {} ms",
+                        consecutiveFailures, waitMillis, ex);
+            }
+            // stop() unparks the wait early
+            if (waitMillis > 0 && running) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitMillis));
+        }
+    }
+
+    /** One round: publishes and deletes up to {@code batch-size} events; returns how many. */
+    int relayOnce() {
+        long started = System.nanoTime();
+        Integer count = txTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(batchSize);
+            List<TransactionEvent> events = new ArrayList<>(batchSize);
+            jdbc.query(SELECT_BATCH, rs -> {
+                ids.add(rs.getLong(1));
+                events.add(TransactionEvent.ofCents(rs.getLong(2), rs.getLong(3), rs.getInt(4),
+                        Cents.fromDecimal(rs.getBigDecimal(5)), rs.getObject(6, OffsetDateTime.class)));
+            }, batchSize);
+            if (events.isEmpty()) {
+                lagSeconds = 0;
+                return 0;
+            }
+            Duration age = Duration.between(events.get(0).eventDate(), OffsetDateTime.now());
+            lagSeconds = Math.max(0, age.toMillis() / 1000.0);
+
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.publish(events);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new IllegalStateException("Outbox sink " + sink.getClass().getSimpleName() + " failed", ex);
+                }
+            }
+            jdbc.batchUpdate(DELETE, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+            return events.size();
+        });
+        if (count > 0) {
+            published.increment(count);
+            batchSizes.record(count);
+            publishTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        return count;
+    }
+}
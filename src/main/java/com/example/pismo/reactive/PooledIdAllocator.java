@@ -0,0 +1,59 @@
+package com.example.pismo.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids from the same pooled sequence Hibernate's {@code PooledSequence} generator draws from, so rows
+ * inserted over R2DBC and over JPA never collide. Each sequence value {@code hi} owns the block
+ * {@code [hi - allocationSize + 1, hi]}; the very first value (the sequence's initial 1) owns only itself,
+ * because Hibernate treats it as the start of the block that ends at the following value.
+ *
+ * Callers that find the block used up each fetch a fresh one; the loser's leftover ids are simply skipped.
+ */
+final class PooledIdAllocator {
+    private final DatabaseClient db;
+    private final String nextValSql;
+    private final int allocationSize;
+    private volatile Block block = new Block(1, 0);
+
+    PooledIdAllocator(DatabaseClient db, String sequenceName, int allocationSize) {
+        this.db = db;
+        this.nextValSql = "select nextval('" + sequenceName + "')";
+        this.allocationSize = allocationSize;
+    }
+
+    Mono<Long> next() {
+        return Mono.defer(() -> {
+            long id = block.take();
+            if (id > 0) return Mono.just(id);
+            return db.sql(nextValSql)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        Block fresh = new Block(Math.max(1, hi - allocationSize + 1), hi);
+                        long first = fresh.take();
+                        block = fresh;
+                        return first;
+                    });
+        });
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long hi;
+
+        private Block(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+
+        /** The next id of the block, or -1 once it is used up. */
+        private long take() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : -1;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pismo.reactive;
+
+import com.example.pismo.dto.AccountCreateRequest;
+import com.example.pismo.dto.AccountResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/** {@code /accounts} on WebFlux; summaries and statement runs stay on the servlet stack and get {@code SERVLET_ONLY}. */
+@RestController
+@RequestMapping("/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountController {
+    private final ReactiveAccountService accountService;
+
+    public ReactiveAccountController(ReactiveAccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @Operation(summary = "Create account")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<AccountResponse> create(@RequestBody @Valid AccountCreateRequest req) {
+        return accountService.create(req);
+    }
+
+    @Operation(summary = "Get account by id")
+    @GetMapping("/{id}")
+    public Mono<AccountResponse> get(@PathVariable("id") Long id) {
+        return accountService.get(id);
+    }
+
+    @Operation(summary = "Not served on the reactive profile (SERVLET_ONLY)")
+    @GetMapping("/{id}/summary")
+    public Mono<Void> summary(@PathVariable("id") Long id) {
+        return ReactiveTransactionController.servletOnly("Summaries");
+    }
+
+    @Operation(summary = "Not served on the reactive profile (SERVLET_ONLY)")
+    @GetMapping("/statements")
+    public Mono<Void> statements() {
+        return ReactiveTransactionController.servletOnly("Statement runs");
+    }
+}
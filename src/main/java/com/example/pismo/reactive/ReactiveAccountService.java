@@ -0,0 +1,68 @@
+package com.example.pismo.reactive;
+
+import com.example.pismo.dto.AccountCreateRequest;
+import com.example.pismo.dto.AccountResponse;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.PooledSequenceGenerator;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.service.AccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/** Non-blocking port of {@link AccountService} for the reactive profile; reads go to the database, not AccountCache. */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountService {
+    private final DatabaseClient db;
+    private final PooledIdAllocator ids;
+
+    public ReactiveAccountService(DatabaseClient db,
+                                  @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + ":50}") int allocationSize) {
+        this.db = db;
+        this.ids = new PooledIdAllocator(db, "accounts_seq", allocationSize);
+    }
+
+    public Mono<AccountResponse> create(AccountCreateRequest req) {
+        long creditLimit;
+        try {
+            creditLimit = AccountService.validateCreditLimit(req);
+        } catch (BusinessException ex) {
+            return Mono.error(ex);
+        }
+        return db.sql("select 1 from accounts where document_number = :documentNumber")
+                .bind("documentNumber", req.documentNumber())
+                .map(row -> true)
+                .first()
+                .flatMap(exists -> Mono.<AccountResponse>error(accountExists(req)))
+                .switchIfEmpty(ids.next().flatMap(id -> db.sql("insert into accounts"
+                                + " (account_id, document_number, available_balance, credit_limit)"
+                                + " values (:id, :documentNumber, 0, :creditLimit)")
+                        .bind("id", id)
+                        .bind("documentNumber", req.documentNumber())
+                        .bind("creditLimit", Cents.toDecimal(creditLimit))
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(AccountResponse.ofCents(id, req.documentNumber(), creditLimit))))
+                // a concurrent create of the same document lost the race on the unique constraint
+                .onErrorMap(DataIntegrityViolationException.class, ex -> accountExists(req));
+    }
+
+    public Mono<AccountResponse> get(Long id) {
+        return db.sql("select account_id, document_number, credit_limit from accounts where account_id = :id")
+                .bind("id", id)
+                .map(row -> AccountResponse.ofCents(row.get(0, Long.class), row.get(1, String.class),
+                        Cents.fromDecimal(row.get(2, BigDecimal.class))))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found " + id)));
+    }
+
+    private static BusinessException accountExists(AccountCreateRequest req) {
+        return new BusinessException("ACCOUNT_EXISTS", "Account already exists for document " + req.documentNumber());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.pismo.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * Basic auth for the reactive profile, through the same {@code AuthenticationProvider} as the servlet stack
+ * (and so the same credential cache). A cache miss runs BCrypt, which blocks, so the adapter moves it off the
+ * event loop. Bearer tokens ({@code app.security.token}) are servlet-only.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(AuthenticationProvider authenticationProvider) {
+        return new ReactiveAuthenticationManagerAdapter(new ProviderManager(authenticationProvider));
+    }
+
+    @Bean
+    public SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable) // stateless API
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/actuator/health").permitAll()
+                        .anyExchange().authenticated())
+                .httpBasic(Customizer.withDefaults())
+                .build();
+    }
+}
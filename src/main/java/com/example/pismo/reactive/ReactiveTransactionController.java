@@ -0,0 +1,96 @@
+package com.example.pismo.reactive;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.dto.TransactionSliceResponse;
+import com.example.pismo.exception.BusinessException;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * {@code /transactions} on WebFlux, with the same request and response bodies as the servlet controller,
+ * {@code Idempotency-Key} included. Batch posts and exports stay on the servlet stack and are answered here with
+ * {@code SERVLET_ONLY}, so a client pointed at the wrong stack finds out instead of getting a 404 or 405.
+ */
+@RestController
+@RequestMapping("/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransactionController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private final ReactiveTransactionService txService;
+
+    public ReactiveTransactionController(ReactiveTransactionService txService) {
+        this.txService = txService;
+    }
+
+    @Operation(summary = "Create transaction; retries carrying the same Idempotency-Key return the original result")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TransactionResponse> post(@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                          @RequestBody @Valid TransactionRequest req,
+                                          ServerHttpResponse response) {
+        if (idempotencyKey == null) return txService.post(req);
+        return txService.post(idempotencyKey, req).map(result -> {
+            if (result.replayed()) response.getHeaders().set(IDEMPOTENT_REPLAYED, "true");
+            return result.response();
+        });
+    }
+
+    @Operation(summary = "Not served on the reactive profile (SERVLET_ONLY)")
+    @PostMapping("/batch")
+    public Mono<Void> postBatch() {
+        return servletOnly("Batch posts");
+    }
+
+    @Operation(summary = "Not served on the reactive profile (SERVLET_ONLY)")
+    @GetMapping("/export")
+    public Mono<Void> export() {
+        return servletOnly("Exports");
+    }
+
+    @Operation(summary = "Get transaction by id")
+    @GetMapping("/{id}")
+    public Mono<TransactionResponse> get(@PathVariable("id") Long id) {
+        return txService.get(id);
+    }
+
+    @Operation(summary = "List transactions by account (paged), with event_date from `from` (default: the recent partitions)")
+    @GetMapping
+    public Mono<Page<TransactionResponse>> listByAccount(
+            @RequestParam(name = "account_id") Long accountId,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from
+    ) {
+        return txService.findByAccount(accountId, from, PageRequest.of(page, size));
+    }
+
+    @Operation(summary = "List transactions by account, newest first, using an opaque cursor (no total count); "
+            + "event_date from `from` (default: the recent partitions)")
+    @GetMapping("/history")
+    public Mono<TransactionSliceResponse> history(
+            @RequestParam(name = "account_id") Long accountId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from
+    ) {
+        return txService.findByAccountAfterCursor(accountId, cursor, size, from);
+    }
+
+    static Mono<Void> servletOnly(String what) {
+        return Mono.error(new BusinessException("SERVLET_ONLY",
+                what + " are not served on the reactive profile; use the default servlet stack"));
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.pismo.reactive;
+
+import com.example.pismo.archive.TransactionPartitions;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.dto.TransactionSliceResponse;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.PooledSequenceGenerator;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.service.IdempotentTransactionService;
+import com.example.pismo.service.OperationTypeRules;
+import com.example.pismo.service.TransactionService;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking port of {@link TransactionService} for the reactive profile. Posting keeps the same validation,
+ * error codes and single conditional UPDATE for the limit check, so parallel debits cannot overspend here either;
+ * reads return the same DTOs. Nothing waits on a thread: a request holds an R2DBC connection only while one of
+ * its statements runs.
+ *
+ * {@code Idempotency-Key} posts use the {@code idempotency_keys} table as the servlet stack does, with the key
+ * written in the posting's own R2DBC transaction; there is no in-memory tier, so a concurrent duplicate waits on
+ * the key's primary key instead and is then answered from the table.
+ *
+ * Only the default posting mode is ported. The ledger engine, group commit, append-only, striped balances and
+ * the transaction archive are servlet-only and refuse to start together with this service.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransactionService {
+    static final String SELECT = "select transaction_id, account_id, operation_type_id, amount from transactions";
+    static final String INSERT = "insert into transactions"
+            + " (transaction_id, account_id, operation_type_id, amount, event_date)"
+            + " values (:id, :accountId, :opId, :amount, :eventDate)";
+    static final String INSERT_OUTBOX = "insert into transaction_outbox"
+            + " (transaction_id, account_id, operation_type_id, amount, event_date)"
+            + " values (:id, :accountId, :opId, :amount, :eventDate)";
+    // BalanceSnapshotService.FOLD: a pooled id at or below the snapshot watermark is folded into the snapshot
+    static final String FOLD = "update balance_snapshots set balance = balance + :amount"
+            + " where account_id = :accountId and last_transaction_id >= :id";
+
+    static final String SELECT_KEY = "select transaction_id, account_id, operation_type_id, amount"
+            + " from idempotency_keys where idempotency_key = :key";
+    static final String INSERT_KEY = "insert into idempotency_keys"
+            + " (idempotency_key, transaction_id, account_id, operation_type_id, amount, created_at)"
+            + " values (:key, :id, :accountId, :opId, :amount, :createdAt)";
+
+    private final DatabaseClient db;
+    private final TransactionalOperator tx;
+    private final PooledIdAllocator ids;
+    private final OperationTypeRules operationTypes;
+    private final TransactionPartitions partitions;
+    private final boolean outbox;
+
+    public ReactiveTransactionService(DatabaseClient db,
+                                      ConnectionFactory connectionFactory,
+                                      OperationTypeRules operationTypes,
+                                      TransactionPartitions partitions,
+                                      @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + ":50}") int allocationSize,
+                                      @Value("${app.ledger.engine.enabled:false}") boolean ledgerEngine,
+                                      @Value("${app.ledger.append-only:false}") boolean appendOnly,
+                                      @Value("${app.transactions.group-commit.enabled:false}") boolean groupCommit,
+                                      @Value("${app.balances.stripes.enabled:false}") boolean stripedBalances,
+                                      @Value("${app.outbox.enabled:false}") boolean outbox,
+                                      @Value("${app.transactions.archive.enabled:false}") boolean archive) {
+        if (ledgerEngine || appendOnly || groupCommit || stripedBalances || archive) {
+            throw new IllegalStateException("the reactive profile cannot be combined with app.ledger.engine.enabled, "
+                    + "app.ledger.append-only, app.transactions.group-commit.enabled, app.balances.stripes.enabled "
+                    + "or app.transactions.archive.enabled");
+        }
+        this.db = db;
+        this.tx = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        this.ids = new PooledIdAllocator(db, "transactions_seq", allocationSize);
+        this.operationTypes = operationTypes;
+        this.partitions = partitions;
+        this.outbox = outbox;
+    }
+
+    public Mono<TransactionResponse> post(TransactionRequest req) {
+        return post(req, null);
+    }
+
+    /** {@link IdempotentTransactionService#post} on R2DBC: a stored key is replayed, a new one posted with it. */
+    public Mono<IdempotentTransactionService.Result> post(String key, TransactionRequest req) {
+        return Mono.fromRunnable(() -> IdempotentTransactionService.validateKey(key))
+                .then(storedKey(key))
+                .map(stored -> IdempotentTransactionService.replay(stored, req))
+                .switchIfEmpty(Mono.defer(() -> post(req, key)
+                        .map(res -> new IdempotentTransactionService.Result(res, false))
+                        // another request committed this key first; ours rolled back, theirs is the one that counts.
+                        // PostgreSQL reports that as a duplicate key, H2 as a lock timeout once the winner commits,
+                        // so any database error is checked against the table
+                        .onErrorResume(DataAccessException.class, failed -> storedKey(key)
+                                .map(stored -> IdempotentTransactionService.replay(stored, req))
+                                .switchIfEmpty(Mono.error(failed)))));
+    }
+
+    private Mono<TransactionResponse> storedKey(String key) {
+        return db.sql(SELECT_KEY)
+                .bind("key", key)
+                .map(ReactiveTransactionService::toResponse)
+                .one();
+    }
+
+    private Mono<TransactionResponse> post(TransactionRequest req, @Nullable String idempotencyKey) {
+        return Mono.fromCallable(() -> {
+                    OperationTypeRules.Rule rule = operationTypes.require(req.operationTypeId());
+                    long amount = TransactionService.validateAmount(req);
+                    return new Posting(req.accountId(), rule, rule.signed(amount));
+                })
+                // the servlet stack reads the account first, so an invalid post to a missing account reports the
+                // account; the lookup is only paid on the rejected path, valid posts learn it from apply
+                .onErrorResume(BusinessException.class, invalid -> accountExists(req.accountId())
+                        .flatMap(exists -> Mono.<Posting>error(exists ? invalid
+                                : new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"))))
+                .flatMap(p -> ids.next().flatMap(id -> apply(p)
+                        .then(insert(id, p, idempotencyKey))
+                        .as(tx::transactional)));
+    }
+
+    // same statements as applyBalanceDelta / applyBalanceDeltaWithinLimit: 0 rows is a missing account or,
+    // for limit-checked types, a breached limit; the rare miss is told apart by a second lookup
+    private Mono<Void> apply(Posting p) {
+        String sql = "update accounts set available_balance = available_balance + :delta where account_id = :id"
+                + (p.rule.limitChecked() ? " and available_balance + credit_limit + :delta >= 0" : "");
+        return db.sql(sql)
+                .bind("delta", Cents.toDecimal(p.signedAmount))
+                .bind("id", p.accountId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : accountExists(p.accountId)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit")
+                                : new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"))));
+    }
+
+    private Mono<TransactionResponse> insert(long id, Posting p, @Nullable String idempotencyKey) {
+        OffsetDateTime eventDate = OffsetDateTime.now();
+        Mono<Long> rows = insert(INSERT, id, p, eventDate);
+        // the row TransactionOutbox writes on the servlet stack, in the same transaction
+        if (outbox) rows = rows.then(insert(INSERT_OUTBOX, id, p, eventDate));
+        rows = rows.then(db.sql(FOLD)
+                .bind("amount", Cents.toDecimal(p.signedAmount))
+                .bind("accountId", p.accountId)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated());
+        if (idempotencyKey != null) {
+            rows = rows.then(db.sql(INSERT_KEY)
+                    .bind("key", idempotencyKey)
+                    .bind("id", id)
+                    .bind("accountId", p.accountId)
+                    .bind("opId", p.rule.id())
+                    .bind("amount", Cents.toDecimal(p.signedAmount))
+                    .bind("createdAt", eventDate)
+                    .fetch()
+                    .rowsUpdated());
+        }
+        return rows.thenReturn(TransactionResponse.ofCents(id, p.accountId, p.rule.id(), p.signedAmount));
+    }
+
+    private Mono<Long> insert(String sql, long id, Posting p, OffsetDateTime eventDate) {
+        return db.sql(sql)
+                .bind("id", id)
+                .bind("accountId", p.accountId)
+                .bind("opId", p.rule.id())
+                .bind("amount", Cents.toDecimal(p.signedAmount))
+                .bind("eventDate", eventDate)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Boolean> accountExists(Long accountId) {
+        return db.sql("select 1 from accounts where account_id = :id")
+                .bind("id", accountId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<TransactionResponse> get(Long id) {
+        return db.sql(SELECT + " where transaction_id = :id")
+                .bind("id", id)
+                .map(ReactiveTransactionService::toResponse)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new BusinessException("TRANSACTION_NOT_FOUND", "Transaction not found: " + id)));
+    }
+
+    public Mono<Page<TransactionResponse>> findByAccount(Long accountId, @Nullable OffsetDateTime from, Pageable pageable) {
+        OffsetDateTime since = partitions.from(from);
+        Mono<List<TransactionResponse>> content = db.sql(SELECT + " where account_id = :accountId and event_date >= :from"
+                        + " order by transaction_id limit :limit offset :offset")
+                .bind("accountId", accountId)
+                .bind("from", since)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(ReactiveTransactionService::toResponse)
+                .all()
+                .collectList();
+        Mono<Long> total = db.sql("select count(*) from transactions where account_id = :accountId and event_date >= :from")
+                .bind("accountId", accountId)
+                .bind("from", since)
+                .map(row -> row.get(0, Long.class))
+                .one();
+        return Mono.zip(content, total, (rows, count) -> new PageImpl<>(rows, pageable, count));
+    }
+
+    public Mono<TransactionSliceResponse> findByAccountAfterCursor(Long accountId, String cursor, int size,
+                                                                   @Nullable OffsetDateTime from) {
+        return Mono.fromCallable(() -> {
+            if (size < 1 || size > TransactionService.MAX_SLICE_SIZE) {
+                throw new BusinessException("INVALID_PAGE_SIZE",
+                        "Size must be between 1 and " + TransactionService.MAX_SLICE_SIZE);
+            }
+            return cursor == null || cursor.isBlank() ? Long.MAX_VALUE : TransactionService.decodeCursor(cursor);
+        }).flatMap(beforeId -> db.sql(SELECT + " where account_id = :accountId and transaction_id < :beforeId"
+                        + " and event_date >= :from order by transaction_id desc limit :limit")
+                .bind("accountId", accountId)
+                .bind("beforeId", beforeId)
+                .bind("from", partitions.from(from))
+                // one extra row tells whether there is a next slice, as Slice does
+                .bind("limit", size + 1)
+                .map(ReactiveTransactionService::toResponse)
+                .all()
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<TransactionResponse> content = hasNext ? rows.subList(0, size) : rows;
+                    String next = hasNext ? TransactionService.encodeCursor(content.get(size - 1).transactionId()) : null;
+                    return new TransactionSliceResponse(content, hasNext, next);
+                }));
+    }
+
+    private static TransactionResponse toResponse(Readable row) {
+        return TransactionResponse.ofCents(row.get(0, Long.class), row.get(1, Long.class), row.get(2, Integer.class),
+                Cents.fromDecimal(row.get(3, BigDecimal.class)));
+    }
+
+    private record Posting(Long accountId, OperationTypeRules.Rule rule, long signedAmount) {
+    }
+}
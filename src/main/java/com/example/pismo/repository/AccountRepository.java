@@ -1,10 +1,46 @@
 package com.example.pismo.repository;
 
 import com.example.pismo.entity.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findByDocumentNumber(String documentNumber);
+    // lookups select straight into AccountView or the id, so nothing is registered in the persistence context
+    @Query("select new com.example.pismo.repository.AccountView(a.id, a.documentNumber, a.availableBalance, a.creditLimit)"
+            + " from Account a where a.id = :id")
+    Optional<AccountView> findViewById(@Param("id") Long id);
+
+    @Query("select a.id from Account a where a.documentNumber = :documentNumber")
+    Optional<Long> findIdByDocumentNumber(@Param("documentNumber") String documentNumber);
+
+    // ordered by id so concurrent batches always lock rows in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    // increments in the database so concurrent writers never overwrite each other's deltas;
+    // delta is in cents and is bound through the attribute's CentsConverter
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.availableBalance = a.availableBalance + :delta where a.id = :id")
+    int applyBalanceDelta(@Param("id") Long id, @Param("delta") long delta);
+
+    // limit check and update in one atomic statement: 0 rows means the delta would breach the credit limit.
+    // :delta sits next to availableBalance so it is bound as numeric(19, 2); after the sum of the two columns
+    // Hibernate casts it to numeric(19, 0), which let a debit overshoot the limit by less than one unit
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.availableBalance = a.availableBalance + :delta " +
+            "where a.id = :id and a.availableBalance + :delta + a.creditLimit >= 0")
+    int applyBalanceDeltaWithinLimit(@Param("id") Long id, @Param("delta") long delta);
 }
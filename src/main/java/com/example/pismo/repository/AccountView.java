@@ -0,0 +1,5 @@
+package com.example.pismo.repository;
+
+/** Read-only projection of an {@code accounts} row, built by the query itself; money is in cents. */
+public record AccountView(Long id, String documentNumber, long availableBalance, long creditLimit) {
+}
@@ -0,0 +1,7 @@
+package com.example.pismo.repository;
+
+import com.example.pismo.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+}
@@ -0,0 +1,7 @@
+package com.example.pismo.repository;
+
+import com.example.pismo.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+}
@@ -0,0 +1,7 @@
+package com.example.pismo.repository;
+
+import com.example.pismo.entity.OperationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OperationTypeRepository extends JpaRepository<OperationType, Integer> {
+}
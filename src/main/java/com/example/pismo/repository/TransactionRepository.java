@@ -3,8 +3,44 @@ package com.example.pismo.repository;
 import com.example.pismo.entity.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+// reads select straight into TransactionView: no entity, proxy or dirty-checking snapshot per row,
+// and t.account.id is read from the foreign key column without touching accounts
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
+    String VIEW = "select new com.example.pismo.repository.TransactionView(t.id, t.account.id, t.operationTypeId, t.amount)"
+            + " from Transaction t";
+
+    @Query(VIEW + " where t.id = :id")
+    Optional<TransactionView> findViewById(@Param("id") Long id);
+
+    @Query(value = VIEW + " where t.account.id = :accountId order by t.id",
+            countQuery = "select count(t) from Transaction t where t.account.id = :accountId")
+    Page<TransactionView> findByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // the event_date bound lets a partitioned table skip the months before it (see TransactionPartitions)
+    @Query(value = VIEW + " where t.account.id = :accountId and t.eventDate >= :from order by t.id",
+            countQuery = "select count(t) from Transaction t where t.account.id = :accountId and t.eventDate >= :from")
+    Page<TransactionView> findByAccountIdSince(@Param("accountId") Long accountId,
+                                               @Param("from") OffsetDateTime from,
+                                               Pageable pageable);
+
+    // keyset page: seeks on idx_tx_account_id, newest first; a Slice fetches size + 1 rows and never counts
+    @Query(VIEW + " where t.account.id = :accountId and t.id < :beforeId and t.eventDate >= :from order by t.id desc")
+    Slice<TransactionView> findByAccountIdBefore(@Param("accountId") Long accountId,
+                                                 @Param("beforeId") Long beforeId,
+                                                 @Param("from") OffsetDateTime from,
+                                                 Pageable pageable);
+
+    // the tail of an account's history after a snapshot watermark; seeks on idx_tx_account_id
+    @Query(value = "select coalesce(sum(amount), 0) from transactions where account_id = :accountId and transaction_id > :afterId",
+            nativeQuery = true)
+    BigDecimal sumAmountsAfter(@Param("accountId") Long accountId, @Param("afterId") long afterId);
 }
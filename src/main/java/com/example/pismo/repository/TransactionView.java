@@ -0,0 +1,5 @@
+package com.example.pismo.repository;
+
+/** Read-only projection of a {@code transactions} row, built by the query itself; amount is in cents. */
+public record TransactionView(Long id, Long accountId, Integer operationTypeId, long amount) {
+}
@@ -0,0 +1,90 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link AccountRepository} for lookups by id and by document number.
+ * Balance writes evict the account both immediately and again after commit, so a reader never keeps a
+ * balance older than the last committed write. Misses are not cached.
+ */
+@Component
+public class AccountCache {
+    private final AccountRepository accountRepo;
+    private final boolean enabled;
+    private final Cache<Long, AccountSnapshot> byId;
+    private final Cache<String, Long> idByDocument;
+
+    public AccountCache(AccountRepository accountRepo,
+                        ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${app.cache.accounts.enabled:true}") boolean enabled,
+                        @Value("${app.cache.accounts.max-size:100000}") long maxSize,
+                        @Value("${app.cache.accounts.ttl:10m}") Duration ttl) {
+        this.accountRepo = accountRepo;
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.idByDocument = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, byId, "accounts");
+            CaffeineCacheMetrics.monitor(registry, idByDocument, "account_documents");
+        });
+    }
+
+    public Optional<AccountSnapshot> get(Long id) {
+        if (!enabled) return accountRepo.findViewById(id).map(AccountSnapshot::of);
+        return Optional.ofNullable(byId.get(id, k -> accountRepo.findViewById(k).map(AccountSnapshot::of).orElse(null)));
+    }
+
+    public Optional<Long> findIdByDocumentNumber(String documentNumber) {
+        if (!enabled) return accountRepo.findIdByDocumentNumber(documentNumber);
+        return Optional.ofNullable(idByDocument.get(documentNumber,
+                k -> accountRepo.findIdByDocumentNumber(k).orElse(null)));
+    }
+
+    /** Caches a newly created account once its transaction commits. */
+    public void putAfterCommit(Account account) {
+        if (!enabled) return;
+        AccountSnapshot snapshot = AccountSnapshot.of(account);
+        afterCommit(() -> {
+            byId.put(snapshot.id(), snapshot);
+            idByDocument.put(snapshot.documentNumber(), snapshot.id());
+        });
+    }
+
+    /** Call whenever an account's balance is written. */
+    public void evict(Long id) {
+        if (!enabled) return;
+        byId.invalidate(id);
+        afterCommit(() -> byId.invalidate(id));
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        idByDocument.invalidateAll();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
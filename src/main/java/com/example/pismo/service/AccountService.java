@@ -11,32 +11,43 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class AccountService {
     private final AccountRepository accountRepo;
+    private final AccountCache accountCache;
 
-    public AccountService(AccountRepository accountRepo) {
+    public AccountService(AccountRepository accountRepo, AccountCache accountCache) {
         this.accountRepo = accountRepo;
+        this.accountCache = accountCache;
     }
 
     @Transactional
     public AccountResponse create(AccountCreateRequest req) {
-        accountRepo.findByDocumentNumber(req.documentNumber())
+        accountCache.findIdByDocumentNumber(req.documentNumber())
                 .ifPresent(a -> {
                     throw new BusinessException("ACCOUNT_EXISTS",
                             "Account already exists for document " + req.documentNumber());
                 });
 
-        Account a = new Account(req.documentNumber(), req.creditLimit());
+        Account a = new Account(req.documentNumber(), validateCreditLimit(req));
         accountRepo.save(a);
+        accountCache.putAfterCommit(a);
         return toResponse(a);
     }
 
+    public static long validateCreditLimit(AccountCreateRequest req) {
+        try {
+            return req.creditLimitInCents();
+        } catch (ArithmeticException e) {
+            throw new BusinessException("INVALID_CREDIT_LIMIT", "Credit limit is out of range");
+        }
+    }
+
     @Transactional(readOnly = true)
     public AccountResponse get(Long id) {
-        Account a = accountRepo.findById(id)
+        AccountSnapshot a = accountCache.get(id)
                 .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found " + id));
-        return toResponse(a);
+        return AccountResponse.ofCents(a.id(), a.documentNumber(), a.creditLimit());
     }
 
     private AccountResponse toResponse(Account a) {
-        return new AccountResponse(a.getId(), a.getDocumentNumber(), a.getCreditLimit());
+        return AccountResponse.ofCents(a.getId(), a.getDocumentNumber(), a.getCreditLimit());
     }
 }
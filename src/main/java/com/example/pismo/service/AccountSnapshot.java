@@ -0,0 +1,16 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountView;
+
+/** Immutable copy of an {@link Account} row, safe to share across threads and requests. Money is in cents. */
+public record AccountSnapshot(Long id, String documentNumber, long availableBalance, long creditLimit) {
+
+    static AccountSnapshot of(Account a) {
+        return new AccountSnapshot(a.getId(), a.getDocumentNumber(), a.getAvailableBalance(), a.getCreditLimit());
+    }
+
+    static AccountSnapshot of(AccountView a) {
+        return new AccountSnapshot(a.id(), a.documentNumber(), a.availableBalance(), a.creditLimit());
+    }
+}
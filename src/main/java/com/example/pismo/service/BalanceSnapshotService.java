@@ -0,0 +1,283 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.BalanceSnapshot;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.BalanceSnapshotRepository;
+import com.example.pismo.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-account balance snapshots over the {@code transactions} history.
+ *
+ * In append-only mode ({@code app.ledger.append-only}) posting never writes {@code accounts.available_balance};
+ * an account's balance is its snapshot plus the transactions after the snapshot's watermark, read under the
+ * account's row lock. Transaction ids come from pooled blocks that are not monotonic across instances, so in
+ * any balance mode a post can receive an id at or below the current watermark; every posting path calls
+ * {@link #appended} so such a post folds its amount into the snapshot in the same database transaction.
+ *
+ * {@link #refresh} advances every snapshot by replaying only the transactions after it. Account ids are
+ * streamed in id order and processed in chunks on a bounded pool, one database transaction per chunk with the
+ * chunk's account rows locked, so posts to those accounts are never half-counted. It can also audit the
+ * balance column against the history, or restore the column from it.
+ */
+@Service
+public class BalanceSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+    // folds a transaction at or below the watermark into the snapshot, which would otherwise never count it;
+    // a row above the watermark matches nothing and is picked up by the next refresh
+    public static final String FOLD = "update balance_snapshots set balance = balance + ?"
+            + " where account_id = ? and last_transaction_id >= ?";
+
+    private final AccountRepository accountRepo;
+    private final TransactionRepository txRepo;
+    private final BalanceSnapshotRepository snapshotRepo;
+    private final AccountCache accountCache;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final boolean appendOnly;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int fetchSize;
+
+    public BalanceSnapshotService(AccountRepository accountRepo,
+                                  TransactionRepository txRepo,
+                                  BalanceSnapshotRepository snapshotRepo,
+                                  AccountCache accountCache,
+                                  JdbcTemplate jdbc,
+                                  PlatformTransactionManager txManager,
+                                  @Value("${app.ledger.append-only:false}") boolean appendOnly,
+                                  @Value("${app.ledger.snapshots.parallelism:4}") int parallelism,
+                                  @Value("${app.ledger.snapshots.chunk-size:1000}") int chunkSize,
+                                  @Value("${app.ledger.snapshots.fetch-size:1000}") int fetchSize) {
+        this.accountRepo = accountRepo;
+        this.txRepo = txRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.accountCache = accountCache;
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.appendOnly = appendOnly;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Balance in cents and the snapshot watermark it was computed from. */
+    public record Position(long balance, long lastTransactionId) {}
+
+    /**
+     * @param accounts   accounts visited
+     * @param advanced   snapshots written because the account had new transactions
+     * @param mismatched accounts whose balance column disagreed with the history (balance-column mode only)
+     * @param restored   balance columns overwritten from the history
+     */
+    public record RefreshResult(int accounts, int advanced, int mismatched, int restored, Duration elapsed) {}
+
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    /** Locks the account row and computes its balance from the history. Call inside the posting transaction. */
+    public Position lockPosition(Long accountId) {
+        accountRepo.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+        return position(accountId);
+    }
+
+    /** Balance from the history; the caller must already hold the account's row lock. */
+    public Position position(Long accountId) {
+        BalanceSnapshot snapshot = snapshotRepo.findById(accountId).orElse(null);
+        long base = snapshot == null ? 0 : snapshot.getBalance();
+        long watermark = snapshot == null ? 0 : snapshot.getLastTransactionId();
+        long tail = Cents.fromDecimal(txRepo.sumAmountsAfter(accountId, watermark));
+        return new Position(Cents.add(base, tail), watermark);
+    }
+
+    /**
+     * Call after inserting a transaction, in the same database transaction and while holding a lock
+     * {@link #refresh} also takes (the account row, or the stripe row a striped credit went to), so the
+     * watermark cannot move in between.
+     */
+    public void appended(Long accountId, long transactionId, long amount) {
+        jdbc.update(FOLD, Cents.toDecimal(amount), accountId, transactionId);
+    }
+
+    /** {@link #appended} for many transactions, as one JDBC batch. */
+    public void appended(List<Transaction> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(FOLD, rows, rows.size(), (ps, tx) -> {
+            ps.setBigDecimal(1, Cents.toDecimal(tx.getAmount()));
+            ps.setLong(2, tx.getAccount().getId());
+            ps.setLong(3, tx.getId());
+        });
+    }
+
+    /**
+     * Advances every account's snapshot to its latest transaction.
+     *
+     * @param restoreBalances also overwrite {@code accounts.available_balance} with the balance from the history
+     */
+    public RefreshResult refresh(boolean restoreBalances) {
+        long started = System.nanoTime();
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "balance-snapshot-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // bounds the chunks buffered ahead of the workers, so memory stays flat however many accounts there are
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<RefreshResult>> chunks = new ArrayList<>();
+        try {
+            readOnlyTemplate.executeWithoutResult(status -> {
+                List<Long> chunk = new ArrayList<>(chunkSize);
+                jdbc.query(con -> {
+                    PreparedStatement ps = con.prepareStatement("select account_id from accounts order by account_id");
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                }, rs -> {
+                    chunk.add(rs.getLong(1));
+                    if (chunk.size() == chunkSize) {
+                        chunks.add(submit(pool, inFlight, List.copyOf(chunk), restoreBalances));
+                        chunk.clear();
+                    }
+                });
+                if (!chunk.isEmpty()) chunks.add(submit(pool, inFlight, List.copyOf(chunk), restoreBalances));
+            });
+
+            int accounts = 0, advanced = 0, mismatched = 0, restored = 0;
+            for (Future<RefreshResult> f : chunks) {
+                RefreshResult r = f.get();
+                accounts += r.accounts();
+                advanced += r.advanced();
+                mismatched += r.mismatched();
+                restored += r.restored();
+            }
+            RefreshResult result = new RefreshResult(accounts, advanced, mismatched, restored,
+                    Duration.ofNanos(System.nanoTime() - started));
+            log.info("Balance snapshots refreshed: {}", result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Snapshot refresh interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Future<RefreshResult> submit(ExecutorService pool, Semaphore inFlight, List<Long> ids, boolean restore) {
+        inFlight.acquireUninterruptibly();
+        try {
+            return pool.submit(() -> {
+                try {
+                    return txTemplate.execute(status -> refreshChunk(ids, restore));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private RefreshResult refreshChunk(List<Long> ids, boolean restore) {
+        String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+
+        // row locks keep posts to these accounts out until the chunk commits
+        Map<Long, Long> stored = new HashMap<>();
+        jdbc.query("select account_id, available_balance from accounts where account_id in (" + in + ")"
+                        + " order by account_id for update",
+                rs -> { stored.put(rs.getLong(1), Cents.fromDecimal(rs.getBigDecimal(2))); }, args);
+        // striped accounts keep part of their balance in stripe rows; locked too, so credits wait as well
+        jdbc.query("select account_id, balance from account_balance_stripes where account_id in (" + in + ")"
+                        + " order by account_id, stripe for update",
+                rs -> { stored.merge(rs.getLong(1), Cents.fromDecimal(rs.getBigDecimal(2)), Cents::add); }, args);
+
+        Map<Long, long[]> snapshots = new HashMap<>();
+        jdbc.query("select account_id, balance, last_transaction_id from balance_snapshots where account_id in (" + in + ")",
+                rs -> { snapshots.put(rs.getLong(1), new long[]{Cents.fromDecimal(rs.getBigDecimal(2)), rs.getLong(3)}); },
+                args);
+
+        // one aggregated row per account: only the transactions after its snapshot are read
+        Map<Long, long[]> tails = new HashMap<>();
+        jdbc.query("select t.account_id, sum(t.amount), max(t.transaction_id) from transactions t"
+                        + " left join balance_snapshots s on s.account_id = t.account_id"
+                        + " where t.account_id in (" + in + ") and t.transaction_id > coalesce(s.last_transaction_id, 0)"
+                        + " group by t.account_id",
+                rs -> { tails.put(rs.getLong(1), new long[]{Cents.fromDecimal(rs.getBigDecimal(2)), rs.getLong(3)}); },
+                args);
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> restores = new ArrayList<>();
+        List<Long> mismatched = new ArrayList<>();
+        for (Long id : stored.keySet()) {
+            long[] snapshot = snapshots.get(id);
+            long[] tail = tails.get(id);
+            long balance = Cents.add(snapshot == null ? 0 : snapshot[0], tail == null ? 0 : tail[0]);
+            if (tail != null) {
+                Object[] row = {Cents.toDecimal(balance), tail[1], now, id};
+                (snapshot == null ? inserts : updates).add(row);
+            }
+            if (stored.get(id) != balance) {
+                if (!appendOnly) mismatched.add(id);
+                if (restore) restores.add(new Object[]{Cents.toDecimal(balance), id});
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbc.batchUpdate("update balance_snapshots set balance = ?, last_transaction_id = ?, taken_at = ?"
+                    + " where account_id = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbc.batchUpdate("insert into balance_snapshots (balance, last_transaction_id, taken_at, account_id)"
+                    + " values (?, ?, ?, ?)", inserts);
+        }
+        if (!restores.isEmpty()) {
+            jdbc.batchUpdate("update accounts set available_balance = ? where account_id = ?", restores);
+            jdbc.batchUpdate("update account_balance_stripes set balance = 0 where account_id = ?",
+                    restores.stream().map(r -> new Object[]{r[1]}).toList());
+            restores.forEach(r -> accountCache.evict((Long) r[1]));
+        }
+        if (!mismatched.isEmpty()) {
+            log.warn("Balance column disagrees with history for {} account(s), e.g. {}", mismatched.size(),
+                    mismatched.subList(0, Math.min(10, mismatched.size())));
+        }
+        return new RefreshResult(stored.size(), updates.size() + inserts.size(), mismatched.size(), restores.size(),
+                Duration.ZERO);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.BatchTransactionResponse;
+import com.example.pismo.dto.BatchTransactionResult;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.TransactionRepository;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts many transactions in one database transaction. Items are grouped by account and applied in
+ * submission order with the same validation, sign and limit rules as {@link TransactionService#post};
+ * accepted items are written as JDBC insert batches (see hibernate.jdbc.batch_size). Each item gets
+ * its own result, so one bad item never fails the rest of the batch.
+ */
+@Service
+public class BatchTransactionService {
+    private final AccountRepository accountRepo;
+    private final AccountCache accountCache;
+    private final BalanceSnapshotService snapshots;
+    private final TransactionRepository txRepo;
+    private final OperationTypeRules operationTypes;
+    private final StripedBalances stripedBalances;
+    private final TransactionOutbox outbox;
+    private final Validator validator;
+    private final TransactionTemplate txTemplate;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final int maxSize;
+
+    public BatchTransactionService(AccountRepository accountRepo,
+                                   AccountCache accountCache,
+                                   BalanceSnapshotService snapshots,
+                                   TransactionRepository txRepo,
+                                   OperationTypeRules operationTypes,
+                                   StripedBalances stripedBalances,
+                                   TransactionOutbox outbox,
+                                   Validator validator,
+                                   PlatformTransactionManager txManager,
+                                   ObjectProvider<LedgerEngine> ledgerEngine,
+                                   @Value("${app.transactions.batch.max-size:5000}") int maxSize) {
+        this.accountRepo = accountRepo;
+        this.accountCache = accountCache;
+        this.snapshots = snapshots;
+        this.txRepo = txRepo;
+        this.operationTypes = operationTypes;
+        this.stripedBalances = stripedBalances;
+        this.outbox = outbox;
+        this.validator = validator;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.ledgerEngine = ledgerEngine;
+        this.maxSize = maxSize;
+    }
+
+    public BatchTransactionResponse post(List<TransactionRequest> items) {
+        checkSize(items.size());
+
+        BatchTransactionResult[] results = new BatchTransactionResult[items.size()];
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            // the ledger engine owns balances while enabled, so every item has to go through it
+            for (int i = 0; i < items.size(); i++) {
+                results[i] = postOne(i, items.get(i), engine::post);
+            }
+        } else {
+            txTemplate.executeWithoutResult(status -> apply(items, results));
+        }
+        return toResponse(results);
+    }
+
+    /** Lets a streaming reader stop as soon as a batch grows past the limit. */
+    public void checkSize(int size) {
+        if (size > maxSize) {
+            throw new BusinessException("BATCH_TOO_LARGE", "Batch size must be <= " + maxSize);
+        }
+    }
+
+    private BatchTransactionResult postOne(int index, TransactionRequest req,
+                                           Function<TransactionRequest, TransactionResponse> post) {
+        String invalid = violations(req);
+        if (invalid != null) return BatchTransactionResult.rejected(index, "VALIDATION_ERROR", invalid);
+        try {
+            return BatchTransactionResult.created(index, post.apply(req));
+        } catch (BusinessException ex) {
+            return BatchTransactionResult.rejected(index, ex.getCode(), ex.getMessage());
+        }
+    }
+
+    private void apply(List<TransactionRequest> items, BatchTransactionResult[] results) {
+        // --- per-item validation, then group the survivors by account in submission order ---
+        Map<Long, List<Integer>> byAccount = new LinkedHashMap<>();
+        OperationTypeRules.Rule[] rules = new OperationTypeRules.Rule[items.size()];
+        long[] amounts = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            TransactionRequest req = items.get(i);
+            String invalid = violations(req);
+            if (invalid != null) {
+                results[i] = BatchTransactionResult.rejected(i, "VALIDATION_ERROR", invalid);
+                continue;
+            }
+            try {
+                rules[i] = operationTypes.require(req.operationTypeId());
+                amounts[i] = TransactionService.validateAmount(req);
+            } catch (BusinessException ex) {
+                results[i] = BatchTransactionResult.rejected(i, ex.getCode(), ex.getMessage());
+                continue;
+            }
+            byAccount.computeIfAbsent(req.accountId(), k -> new ArrayList<>()).add(i);
+        }
+        if (byAccount.isEmpty()) return;
+
+        Map<Long, Account> accounts = accountRepo.findAllByIdForUpdate(byAccount.keySet()).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        // --- limit checks against a running balance per account ---
+        List<Integer> accepted = new ArrayList<>();
+        long[] signedAmounts = new long[items.size()];
+        for (Map.Entry<Long, List<Integer>> group : byAccount.entrySet()) {
+            Account account = accounts.get(group.getKey());
+            if (account == null) {
+                for (int i : group.getValue()) {
+                    results[i] = BatchTransactionResult.rejected(i, "ACCOUNT_NOT_FOUND", "Account not found");
+                }
+                continue;
+            }
+
+            long balance;
+            if (snapshots.isAppendOnly()) {
+                // rows are already locked above; the history, not the column, holds the balance
+                balance = snapshots.position(account.getId()).balance();
+            } else if (stripedBalances.stripes(account.getId()) > 0) {
+                // the row is locked, so the compactor cannot move the stripes into it meanwhile; accepted posts,
+                // credits included, go to the row
+                balance = Cents.add(account.getAvailableBalance(), stripedBalances.stripedBalance(account.getId()));
+            } else {
+                balance = account.getAvailableBalance();
+            }
+            long opening = balance;
+            for (int i : group.getValue()) {
+                long signed = rules[i].signed(amounts[i]);
+                if (rules[i].limitChecked()
+                        && !TransactionService.withinLimit(balance, account.getCreditLimit(), signed)) {
+                    results[i] = BatchTransactionResult.rejected(i,
+                            "TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+                    continue;
+                }
+                balance = Cents.add(balance, signed);
+                signedAmounts[i] = signed;
+                accepted.add(i);
+            }
+            if (!snapshots.isAppendOnly()) {
+                account.addToBalance(Cents.add(balance, Cents.negate(opening)));
+                accountCache.evict(account.getId());
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        // --- ids come from the pooled sequence, so Hibernate sends these as JDBC insert batches ---
+        List<Transaction> rows = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            rows.add(new Transaction(accounts.get(items.get(i).accountId()), rules[i].id(), signedAmounts[i]));
+        }
+        txRepo.saveAll(rows);
+        outbox.append(rows);
+        snapshots.appended(rows);
+
+        for (int n = 0; n < accepted.size(); n++) {
+            int i = accepted.get(n);
+            Transaction tx = rows.get(n);
+            results[i] = BatchTransactionResult.created(i,
+                    TransactionResponse.ofCents(tx.getId(), items.get(i).accountId(), rules[i].id(), tx.getAmount()));
+        }
+    }
+
+    private String violations(TransactionRequest req) {
+        if (req == null) return "item must not be null";
+        var violations = validator.validate(req);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BatchTransactionResponse toResponse(BatchTransactionResult[] results) {
+        int accepted = (int) Arrays.stream(results)
+                .filter(r -> r.status() == BatchTransactionResult.Status.CREATED)
+                .count();
+        return new BatchTransactionResponse(accepted, results.length - accepted, Arrays.asList(results));
+    }
+}
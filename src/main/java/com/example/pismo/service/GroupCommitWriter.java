@@ -0,0 +1,292 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.IdempotencyKey;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import com.example.pismo.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for {@code POST /transactions}. Callers validate on their own thread and queue the post; one
+ * writer thread drains the queue into groups of up to {@code batch-size} posts, waiting at most
+ * {@code max-linger} for a group to fill, and commits each group in one database transaction: the balance
+ * deltas go out as one JDBC batch of the same conditional UPDATE {@link TransactionService} uses, in queue
+ * order, and the accepted transactions as Hibernate insert batches. A caller returns only once its group has
+ * committed. A full queue rejects new posts after {@code enqueue-timeout} (503 OVERLOADED).
+ *
+ * Posts with an {@code Idempotency-Key} are grouped too, and their key rows are written in the group's
+ * transaction. Balances stay in the database, so batch posts can run alongside; those keep committing on
+ * their own. If a group fails, its posts are retried one per transaction so one bad post (or a key another
+ * instance already committed) cannot fail the others.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transactions.group-commit.enabled", havingValue = "true")
+public class GroupCommitWriter implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    // limit check and increment in one statement, as in applyBalanceDeltaWithinLimit; types that are not
+    // limit-checked (payments) skip the check
+    static final String APPLY_DELTA = "update accounts set available_balance = available_balance + ?"
+            + " where account_id = ? and (not ? or available_balance + credit_limit + ? >= 0)";
+
+    private final AccountRepository accountRepo;
+    private final TransactionRepository txRepo;
+    private final IdempotencyKeyRepository keyRepo;
+    private final AccountCache accountCache;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final OperationTypeRules operationTypes;
+    private final TransactionOutbox outbox;
+    private final BalanceSnapshotService snapshots;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long enqueueTimeoutNanos;
+    private final Thread writer;
+    private final DistributionSummary groupSizes;
+    private final Timer commitTimer;
+    private volatile boolean running = true;
+
+    public GroupCommitWriter(AccountRepository accountRepo,
+                             TransactionRepository txRepo,
+                             IdempotencyKeyRepository keyRepo,
+                             AccountCache accountCache,
+                             JdbcTemplate jdbc,
+                             PlatformTransactionManager txManager,
+                             OperationTypeRules operationTypes,
+                             TransactionOutbox outbox,
+                             BalanceSnapshotService snapshots,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${app.transactions.group-commit.batch-size:100}") int batchSize,
+                             @Value("${app.transactions.group-commit.max-linger:2ms}") Duration maxLinger,
+                             @Value("${app.transactions.group-commit.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.transactions.group-commit.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                             @Value("${app.ledger.engine.enabled:false}") boolean ledgerEngine,
+                             @Value("${app.ledger.append-only:false}") boolean appendOnly) {
+        if (ledgerEngine || appendOnly) {
+            throw new IllegalStateException("app.transactions.group-commit.enabled cannot be combined with "
+                    + "app.ledger.engine.enabled or app.ledger.append-only");
+        }
+        this.accountRepo = accountRepo;
+        this.txRepo = txRepo;
+        this.keyRepo = keyRepo;
+        this.accountCache = accountCache;
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.operationTypes = operationTypes;
+        this.outbox = outbox;
+        this.snapshots = snapshots;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = maxLinger.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.groupSizes = DistributionSummary.builder("pismo.transactions.group_commit.size")
+                .description("Posts committed per database transaction")
+                .register(registry);
+        this.commitTimer = Timer.builder("pismo.transactions.group_commit.commit")
+                .description("Time to write and commit one group")
+                .register(registry);
+        Gauge.builder("pismo.transactions.group_commit.queue", queue, BlockingQueue::size)
+                .description("Posts waiting for the group commit writer")
+                .register(registry);
+
+        this.writer = new Thread(this::run, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public TransactionResponse post(TransactionRequest req) {
+        return post(req, null);
+    }
+
+    /**
+     * @param idempotencyKey written to {@code idempotency_keys} in the same database transaction as the post,
+     *                       or null; a key another post already committed fails this post with a
+     *                       {@link org.springframework.dao.DataIntegrityViolationException}
+     */
+    public TransactionResponse post(TransactionRequest req, @Nullable String idempotencyKey) {
+        OperationTypeRules.Rule rule = operationTypes.require(req.operationTypeId());
+        long amount = TransactionService.validateAmount(req);
+        long signedAmount = rule.signed(amount);
+        accountCache.get(req.accountId())
+                .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+
+        Pending pending = new Pending(req.accountId(), rule, signedAmount, idempotencyKey);
+        boolean queued;
+        try {
+            queued = running && queue.offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) throw new RejectedExecutionException("Group commit queue is full");
+
+        try {
+            return pending.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                queue.drainTo(group, batchSize - 1);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (group.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) break;
+                    group.add(next);
+                    queue.drainTo(group, batchSize - group.size());
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the writer; if something does, stop taking posts but drain what is queued
+                running = false;
+            }
+            if (group.isEmpty()) continue;
+            commit(group);
+            group.clear();
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        long started = System.nanoTime();
+        Object[] outcomes;
+        try {
+            outcomes = txTemplate.execute(status -> write(group));
+        } catch (RuntimeException ex) {
+            if (group.size() > 1) {
+                log.warn("Group commit of {} posts failed, retrying them one by one", group.size(), ex);
+                for (Pending p : group) commit(List.of(p));
+            } else {
+                group.get(0).result.completeExceptionally(ex);
+            }
+            return;
+        }
+        commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        groupSizes.record(group.size());
+        // only now is the group durable
+        for (int i = 0; i < group.size(); i++) {
+            if (outcomes[i] instanceof TransactionResponse res) group.get(i).result.complete(res);
+            else group.get(i).result.completeExceptionally((RuntimeException) outcomes[i]);
+        }
+    }
+
+    /** Runs inside the group's transaction; returns a response or a rejection per post. */
+    private Object[] write(List<Pending> group) {
+        int[] updated = jdbc.batchUpdate(APPLY_DELTA, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Pending p = group.get(i);
+                ps.setBigDecimal(1, Cents.toDecimal(p.signedAmount));
+                ps.setLong(2, p.accountId);
+                ps.setBoolean(3, p.rule.limitChecked());
+                ps.setBigDecimal(4, Cents.toDecimal(p.signedAmount));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return group.size();
+            }
+        });
+
+        Object[] outcomes = new Object[group.size()];
+        List<Transaction> rows = new ArrayList<>(group.size());
+        List<Integer> accepted = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            Pending p = group.get(i);
+            if (updated[i] == 0) {
+                outcomes[i] = new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+                continue;
+            }
+            rows.add(new Transaction(accountRepo.getReferenceById(p.accountId), p.rule.id(), p.signedAmount));
+            accepted.add(i);
+            accountCache.evict(p.accountId);
+        }
+        txRepo.saveAll(rows);
+        for (int n = 0; n < rows.size(); n++) {
+            Pending p = group.get(accepted.get(n));
+            if (p.idempotencyKey != null) {
+                keyRepo.save(new IdempotencyKey(p.idempotencyKey, rows.get(n).getId(), p.accountId, p.rule.id(),
+                        p.signedAmount));
+            }
+        }
+        txRepo.flush();
+        outbox.append(rows);
+        snapshots.appended(rows);
+        for (int n = 0; n < rows.size(); n++) {
+            int i = accepted.get(n);
+            Pending p = group.get(i);
+            outcomes[i] = TransactionResponse.ofCents(rows.get(n).getId(), p.accountId, p.rule.id(), p.signedAmount);
+        }
+        return outcomes;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // the writer notices within one poll timeout and drains what is already queued
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.result.completeExceptionally(new RejectedExecutionException("Group commit writer stopped"));
+        }
+    }
+
+    private static final class Pending {
+        private final Long accountId;
+        private final OperationTypeRules.Rule rule;
+        private final long signedAmount;
+        private final String idempotencyKey;
+        private final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+
+        private Pending(Long accountId, OperationTypeRules.Rule rule, long signedAmount, String idempotencyKey) {
+            this.accountId = accountId;
+            this.rule = rule;
+            this.signedAmount = signedAmount;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+}
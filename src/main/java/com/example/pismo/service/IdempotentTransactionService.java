@@ -0,0 +1,160 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.IdempotencyKey;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Posts a transaction at most once per {@code Idempotency-Key}. Keys are checked in two tiers:
+ * <ul>
+ *   <li>a bounded, expiring in-memory map of key to result future. Concurrent duplicates on this instance
+ *   wait on the first request's future instead of running again (single flight), and later retries are
+ *   answered from memory;</li>
+ *   <li>the {@code idempotency_keys} table, written in the same database transaction as the posted
+ *   transaction, which catches retries that land on another instance or arrive after the memory entry
+ *   expired.</li>
+ * </ul>
+ * Replays never call {@link TransactionService} or lock the account. Rejected posts are not remembered,
+ * so a retry after e.g. a payment runs again. Reusing a key for a different request is an error.
+ */
+@Service
+public class IdempotentTransactionService {
+    private final TransactionService txService;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final ObjectProvider<GroupCommitWriter> groupCommit;
+    private final IdempotencyKeyRepository keyRepo;
+    private final TransactionTemplate txTemplate;
+    private final Cache<String, CompletableFuture<TransactionResponse>> recent;
+
+    public IdempotentTransactionService(TransactionService txService,
+                                        ObjectProvider<LedgerEngine> ledgerEngine,
+                                        ObjectProvider<GroupCommitWriter> groupCommit,
+                                        IdempotencyKeyRepository keyRepo,
+                                        PlatformTransactionManager txManager,
+                                        ObjectProvider<MeterRegistry> meterRegistry,
+                                        @Value("${app.idempotency.cache.max-size:100000}") long maxSize,
+                                        @Value("${app.idempotency.cache.ttl:1h}") Duration ttl) {
+        this.txService = txService;
+        this.ledgerEngine = ledgerEngine;
+        this.groupCommit = groupCommit;
+        this.keyRepo = keyRepo;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.recent = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, recent, "idempotency_keys"));
+    }
+
+    public record Result(TransactionResponse response, boolean replayed) {}
+
+    public Result post(String key, TransactionRequest req) {
+        validateKey(key);
+
+        CompletableFuture<TransactionResponse> mine = new CompletableFuture<>();
+        CompletableFuture<TransactionResponse> first = recent.asMap().putIfAbsent(key, mine);
+        if (first != null) return replay(join(first), req);
+
+        TransactionResponse stored;
+        boolean executed = false;
+        try {
+            stored = keyRepo.findById(key).map(IdempotentTransactionService::toResponse).orElse(null);
+            if (stored == null) {
+                stored = execute(key, req);
+                executed = true;
+            }
+        } catch (RuntimeException ex) {
+            // failures are not remembered: waiters see this outcome, the next retry runs again
+            recent.asMap().remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        mine.complete(stored);
+        return executed ? new Result(stored, false) : replay(stored, req);
+    }
+
+    private TransactionResponse execute(String key, TransactionRequest req) {
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        GroupCommitWriter writer = groupCommit.getIfAvailable();
+        try {
+            // the engine and the group commit writer commit on their own writer thread, and write the key in
+            // that transaction
+            if (engine != null) return engine.post(req, key);
+            if (writer != null) return writer.post(req, key);
+            return txTemplate.execute(status -> {
+                TransactionResponse res = txService.post(req);
+                keyRepo.saveAndFlush(toKey(key, res));
+                return res;
+            });
+        } catch (DataIntegrityViolationException duplicate) {
+            // another instance committed this key first; ours rolled back, theirs is the one that counts
+            return keyRepo.findById(key).map(IdempotentTransactionService::toResponse).orElseThrow(() -> duplicate);
+        }
+    }
+
+    public static void validateKey(String key) {
+        if (key == null || key.isBlank() || key.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new BusinessException("INVALID_IDEMPOTENCY_KEY",
+                    "Idempotency-Key must be 1.." + IdempotencyKey.MAX_LENGTH + " characters");
+        }
+    }
+
+    /** The stored result of a key, or {@code IDEMPOTENCY_KEY_REUSED} when it was posted for another request. */
+    public static Result replay(TransactionResponse original, TransactionRequest req) {
+        if (!sameRequest(original, req)) {
+            throw new BusinessException("IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency-Key was already used for a different request");
+        }
+        return new Result(original, true);
+    }
+
+    private static boolean sameRequest(TransactionResponse original, TransactionRequest req) {
+        if (!original.accountId().equals(req.accountId())
+                || !original.operationTypeId().equals(req.operationTypeId())) {
+            return false;
+        }
+        try {
+            // same type, so the same sign: only the magnitude can differ
+            return req.amountInCents() == Math.abs(Cents.fromDecimal(original.amount()));
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static TransactionResponse join(CompletableFuture<TransactionResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    private static IdempotencyKey toKey(String key, TransactionResponse res) {
+        return new IdempotencyKey(key, res.transactionId(), res.accountId(), res.operationTypeId(),
+                Cents.fromDecimal(res.amount()));
+    }
+
+    private static TransactionResponse toResponse(IdempotencyKey k) {
+        return TransactionResponse.ofCents(k.getTransactionId(), k.getAccountId(), k.getOperationTypeId(), k.getAmount());
+    }
+
+    /** Drops the in-memory tier, leaving only the table. */
+    void forgetRecent() {
+        recent.invalidateAll();
+    }
+}
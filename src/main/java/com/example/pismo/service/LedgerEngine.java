@@ -0,0 +1,364 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.IdempotencyKey;
+import com.example.pismo.entity.Transaction;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import com.example.pismo.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer ledger: accounts are sharded by id across partitions, each owned by one thread.
+ * The partition thread is the only one that reads or mutates its accounts' balances, so the limit
+ * check needs no locks. Durable writes are handed to a per-partition writer thread, which drains them
+ * in the order they were accepted and commits everything it drained, up to {@code batch-size} posts,
+ * in one database transaction.
+ *
+ * The in-memory balance only counts what cannot be taken back: a debit is subtracted when it is accepted,
+ * a credit is added once its write has committed, so no debit is accepted on the strength of a credit whose
+ * write may still fail. The writer applies each delta with the same conditional UPDATE as
+ * {@link TransactionService}, so the database cannot go past the limit either. Outcomes go back to the
+ * partition thread through an unbounded queue it drains before every post, so a failed debit is always given
+ * back. Accounts with no write in flight are evicted, least recently used first, beyond {@code max-accounts}
+ * per partition, and read again from the database on their next post.
+ *
+ * While enabled the engine must be the only component posting transactions, otherwise the in-memory
+ * balances drift from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ledger.engine.enabled", havingValue = "true")
+public class LedgerEngine implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private final AccountRepository accountRepo;
+    private final AccountCache accountCache;
+    private final TransactionRepository txRepo;
+    private final IdempotencyKeyRepository keyRepo;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final OperationTypeRules operationTypes;
+    private final TransactionOutbox outbox;
+    private final BalanceSnapshotService snapshots;
+    private final DistributionSummary batchSizes;
+    private final int batchSize;
+    private final Partition[] partitions;
+
+    public LedgerEngine(AccountRepository accountRepo,
+                        AccountCache accountCache,
+                        TransactionRepository txRepo,
+                        IdempotencyKeyRepository keyRepo,
+                        JdbcTemplate jdbc,
+                        PlatformTransactionManager txManager,
+                        OperationTypeRules operationTypes,
+                        TransactionOutbox outbox,
+                        BalanceSnapshotService snapshots,
+                        ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${app.ledger.engine.partitions:4}") int partitionCount,
+                        @Value("${app.ledger.engine.queue-capacity:10000}") int queueCapacity,
+                        @Value("${app.ledger.engine.batch-size:100}") int batchSize,
+                        @Value("${app.ledger.engine.max-accounts:100000}") int maxAccounts,
+                        @Value("${app.ledger.append-only:false}") boolean appendOnly) {
+        if (appendOnly) {
+            throw new IllegalStateException("app.ledger.engine.enabled cannot be combined with app.ledger.append-only");
+        }
+        this.accountRepo = accountRepo;
+        this.accountCache = accountCache;
+        this.txRepo = txRepo;
+        this.keyRepo = keyRepo;
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.operationTypes = operationTypes;
+        this.outbox = outbox;
+        this.snapshots = snapshots;
+        this.batchSizes = DistributionSummary.builder("pismo.ledger.write_batch.size")
+                .description("Ledger posts committed per database transaction")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        this.batchSize = batchSize;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, queueCapacity, maxAccounts);
+        }
+    }
+
+    public TransactionResponse post(TransactionRequest req) {
+        return post(req, null);
+    }
+
+    /**
+     * @param idempotencyKey written to {@code idempotency_keys} in the same database transaction as the post,
+     *                       or null; a key another post already committed fails this post with a
+     *                       {@link org.springframework.dao.DataIntegrityViolationException}
+     */
+    public TransactionResponse post(TransactionRequest req, @Nullable String idempotencyKey) {
+        OperationTypeRules.Rule rule = operationTypes.require(req.operationTypeId());
+        long amount = TransactionService.validateAmount(req);
+        long signedAmount = rule.signed(amount);
+
+        Partition partition = partitionFor(req.accountId());
+        CompletableFuture<TransactionResponse> result = CompletableFuture
+                .supplyAsync(() -> partition.apply(req.accountId(), rule, signedAmount, idempotencyKey), partition.ledger)
+                .thenCompose(write -> write);
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    private Partition partitionFor(Long accountId) {
+        return partitions[(int) Math.floorMod(accountId, (long) partitions.length)];
+    }
+
+    /** Runs on the partition's writer thread. */
+    private void drain(Partition p) {
+        List<Write> group = new ArrayList<>(batchSize);
+        while (p.running || !p.writes.isEmpty()) {
+            try {
+                Write first = p.writes.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                p.writes.drainTo(group, batchSize - 1);
+            } catch (InterruptedException e) {
+                // nothing interrupts the writer; if something does, stop but drain what is queued
+                p.running = false;
+            }
+            if (group.isEmpty()) continue;
+            commit(p, group);
+            group.clear();
+        }
+    }
+
+    private void commit(Partition p, List<Write> group) {
+        Object[] outcomes;
+        try {
+            outcomes = txTemplate.execute(status -> persist(group));
+        } catch (RuntimeException ex) {
+            if (group.size() > 1) {
+                log.warn("Ledger write of {} posts failed, retrying them one by one", group.size(), ex);
+                for (Write w : group) commit(p, List.of(w));
+            } else {
+                log.error("Ledger write failed for account {}", group.get(0).accountId, ex);
+                p.settle(group.get(0), ex);
+            }
+            return;
+        }
+        batchSizes.record(group.size());
+        for (int i = 0; i < group.size(); i++) p.settle(group.get(i), outcomes[i]);
+    }
+
+    /** Runs inside the group's transaction; returns a response or a rejection per post. */
+    private Object[] persist(List<Write> group) {
+        int[] updated = jdbc.batchUpdate(GroupCommitWriter.APPLY_DELTA, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Write w = group.get(i);
+                ps.setBigDecimal(1, Cents.toDecimal(w.signedAmount));
+                ps.setLong(2, w.accountId);
+                ps.setBoolean(3, w.rule.limitChecked());
+                ps.setBigDecimal(4, Cents.toDecimal(w.signedAmount));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return group.size();
+            }
+        });
+
+        Object[] outcomes = new Object[group.size()];
+        List<Transaction> rows = new ArrayList<>(group.size());
+        List<Integer> accepted = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            Write w = group.get(i);
+            if (updated[i] == 0) {
+                // only when the database moved behind the engine's back; the partition gives the debit back
+                outcomes[i] = new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+                continue;
+            }
+            rows.add(new Transaction(accountRepo.getReferenceById(w.accountId), w.rule.id(), w.signedAmount));
+            accepted.add(i);
+            accountCache.evict(w.accountId);
+        }
+        txRepo.saveAll(rows);
+        for (int n = 0; n < rows.size(); n++) {
+            Write w = group.get(accepted.get(n));
+            if (w.idempotencyKey != null) {
+                keyRepo.save(new IdempotencyKey(w.idempotencyKey, rows.get(n).getId(), w.accountId, w.rule.id(),
+                        w.signedAmount));
+            }
+        }
+        txRepo.flush();
+        outbox.append(rows);
+        snapshots.appended(rows);
+        for (int n = 0; n < rows.size(); n++) {
+            int i = accepted.get(n);
+            Write w = group.get(i);
+            outcomes[i] = TransactionResponse.ofCents(rows.get(n).getId(), w.accountId, w.rule.id(), w.signedAmount);
+        }
+        return outcomes;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (Partition p : partitions) p.ledger.shutdown();
+        for (Partition p : partitions) p.ledger.awaitTermination(10, TimeUnit.SECONDS);
+        // the writers notice within one poll timeout and drain what is already queued
+        for (Partition p : partitions) p.running = false;
+        for (Partition p : partitions) {
+            p.writer.join(TimeUnit.SECONDS.toMillis(30));
+            if (p.writer.isAlive()) log.warn("Ledger partition {} shut down with pending writes", p.index);
+            Write w;
+            while ((w = p.writes.poll()) != null) {
+                w.result.completeExceptionally(new RejectedExecutionException("Ledger engine stopped"));
+            }
+        }
+    }
+
+    private static final class AccountState {
+        private final long creditLimit;
+        // committed balance plus the debits in flight
+        private long balance;
+        private int inFlight;
+
+        private AccountState(long balance, long creditLimit) {
+            this.balance = balance;
+            this.creditLimit = creditLimit;
+        }
+    }
+
+    private static final class Write {
+        private final Long accountId;
+        private final OperationTypeRules.Rule rule;
+        private final long signedAmount;
+        private final String idempotencyKey;
+        private final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+        // set by the writer before the write is handed back to the ledger thread
+        private boolean committed;
+
+        private Write(Long accountId, OperationTypeRules.Rule rule, long signedAmount, String idempotencyKey) {
+            this.accountId = accountId;
+            this.rule = rule;
+            this.signedAmount = signedAmount;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    private final class Partition {
+        private final int index;
+        // confined to the ledger thread; in access order, so the eldest entry is the least recently used
+        private final Map<Long, AccountState> accounts;
+        // finished writes on their way back to the ledger thread; unbounded, so handing one back never fails
+        private final Queue<Write> settled = new ConcurrentLinkedQueue<>();
+        private final BlockingQueue<Write> writes;
+        private final ExecutorService ledger;
+        private final Thread writer;
+        private volatile boolean running = true;
+
+        private Partition(int index, int queueCapacity, int maxAccounts) {
+            this.index = index;
+            this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, AccountState> eldest) {
+                    // an account with writes in flight keeps its state: the database does not show them yet
+                    return size() > maxAccounts && eldest.getValue().inFlight == 0;
+                }
+            };
+            this.writes = new ArrayBlockingQueue<>(queueCapacity);
+            this.ledger = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    r -> daemon(r, "ledger-" + index));
+            this.writer = daemon(() -> drain(this), "ledger-writer-" + index);
+            this.writer.start();
+        }
+
+        /** Runs on the ledger thread. */
+        private CompletableFuture<TransactionResponse> apply(Long accountId, OperationTypeRules.Rule rule,
+                                                             long signedAmount, String idempotencyKey) {
+            applySettled();
+            AccountState state = accounts.get(accountId);
+            if (state == null) {
+                Account account = accountRepo.findById(accountId)
+                        .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+                state = new AccountState(account.getAvailableBalance(), account.getCreditLimit());
+                accounts.put(accountId, state);
+            }
+
+            if (rule.limitChecked() && !TransactionService.withinLimit(state.balance, state.creditLimit, signedAmount)) {
+                throw new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+            }
+
+            Write write = new Write(accountId, rule, signedAmount, idempotencyKey);
+            if (!writes.offer(write)) throw new RejectedExecutionException("Ledger write queue is full");
+            state.inFlight++;
+            if (signedAmount < 0) state.balance = Cents.add(state.balance, signedAmount);
+            return write.result;
+        }
+
+        /** Runs on the ledger thread: counts committed credits and gives failed debits back. */
+        private void applySettled() {
+            Write w;
+            while ((w = settled.poll()) != null) {
+                // never evicted while in flight
+                AccountState state = accounts.get(w.accountId);
+                state.inFlight--;
+                if (w.committed && w.signedAmount > 0) {
+                    state.balance = Cents.add(state.balance, w.signedAmount);
+                } else if (!w.committed && w.signedAmount < 0) {
+                    state.balance = Cents.add(state.balance, Cents.negate(w.signedAmount));
+                }
+            }
+        }
+
+        /** Runs on the writer thread: hands the outcome to the ledger thread first, then to the caller. */
+        private void settle(Write w, Object outcome) {
+            w.committed = outcome instanceof TransactionResponse;
+            settled.add(w);
+            if (outcome instanceof TransactionResponse res) w.result.complete(res);
+            else w.result.completeExceptionally((Throwable) outcome);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
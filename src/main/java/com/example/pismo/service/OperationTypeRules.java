@@ -0,0 +1,127 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.Cents;
+import com.example.pismo.entity.OperationType;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.OperationTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code operation_types} table compiled into an array indexed by operation type id, so posting resolves
+ * a type with one bounds check and one array read, no database hit and no map lookup. The array is rebuilt
+ * whole and swapped in through a volatile field: a post sees either the old table or the new one, never a
+ * mix. It is compiled at startup (seeding the four original types into an empty table), after every
+ * {@link #save}, and on {@link #reload}, which picks up changes made by other instances or directly in SQL.
+ */
+@Component
+public class OperationTypeRules implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(OperationTypeRules.class);
+
+    /** How a post of one enabled operation type is signed and checked. */
+    public record Rule(int id, boolean credit, boolean limitChecked) {
+        /** {@code amount} in cents, positive; credits keep it, debits negate it. */
+        public long signed(long amount) {
+            return credit ? amount : Cents.negate(amount);
+        }
+    }
+
+    private final OperationTypeRepository repo;
+    private final TransactionTemplate txTemplate;
+    private final int maxId;
+    // index = operation type id; null for unknown and disabled types
+    private volatile Rule[] table = new Rule[0];
+
+    public OperationTypeRules(OperationTypeRepository repo,
+                              PlatformTransactionManager txManager,
+                              @Value("${app.operation-types.max-id:1023}") int maxId) {
+        this.repo = repo;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.maxId = maxId;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            txTemplate.executeWithoutResult(status -> {
+                if (repo.count() == 0) repo.saveAll(defaults());
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // another instance seeded the table first
+        }
+        reload();
+    }
+
+    // the types the API shipped with, before they became data
+    private static List<OperationType> defaults() {
+        return List.of(
+                new OperationType(1, "Normal Purchase", false, true, true),
+                new OperationType(2, "Purchase with installments", false, true, true),
+                new OperationType(3, "Withdrawal", false, true, true),
+                new OperationType(4, "Payment", true, false, true));
+    }
+
+    /** The rule for an enabled type; unknown, disabled and null ids are rejected. */
+    public Rule require(Integer operationTypeId) {
+        Rule[] rules = table;
+        if (operationTypeId != null) {
+            int id = operationTypeId;
+            if (id >= 0 && id < rules.length && rules[id] != null) return rules[id];
+        }
+        throw new BusinessException("INVALID_OPERATION_TYPE", "Unknown or disabled operation type: " + operationTypeId);
+    }
+
+    public List<OperationType> findAll() {
+        return repo.findAll();
+    }
+
+    /** Creates or replaces a type, then recompiles the table. */
+    public OperationType save(int id, String description, boolean credit, boolean limitChecked, boolean enabled) {
+        if (id < 1 || id > maxId) {
+            throw new BusinessException("INVALID_OPERATION_TYPE", "Operation type id must be between 1 and " + maxId);
+        }
+        if (description == null || description.isBlank()) {
+            throw new BusinessException("INVALID_OPERATION_TYPE", "Description is required");
+        }
+        OperationType saved = txTemplate.execute(status -> {
+            OperationType type = repo.findById(id).orElse(null);
+            if (type == null) return repo.save(new OperationType(id, description, credit, limitChecked, enabled));
+            type.update(description, credit, limitChecked, enabled);
+            return type;
+        });
+        reload();
+        return saved;
+    }
+
+    /** Compiles the table from the database and swaps it in; returns the number of enabled types. */
+    public synchronized int reload() {
+        return install(repo.findAll());
+    }
+
+    int install(List<OperationType> types) {
+        List<Rule> rules = new ArrayList<>();
+        int length = 0;
+        for (OperationType type : types) {
+            if (!type.isEnabled()) continue;
+            if (type.getId() < 0 || type.getId() > maxId) {
+                log.warn("Ignoring operation type {}: ids must be between 0 and {}", type.getId(), maxId);
+                continue;
+            }
+            rules.add(new Rule(type.getId(), type.isCredit(), type.isLimitChecked()));
+            length = Math.max(length, type.getId() + 1);
+        }
+        Rule[] compiled = new Rule[length];
+        for (Rule rule : rules) compiled[rule.id()] = rule;
+        table = compiled;
+        return rules.size();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.pismo.service;
+
+import com.example.pismo.archive.TransactionArchive;
+import com.example.pismo.archive.TransactionPartitions;
+import com.example.pismo.dto.AccountSummaryResponse;
+import com.example.pismo.dto.OperationTypeTotal;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.exception.BusinessException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Per-account totals by operation type over a period, computed by grouped SQL aggregates
+ * (idx_tx_account_type_date) rather than by reading the transactions.
+ *
+ * {@link #statements} covers a whole account id range for the nightly run: the range is split across a
+ * fork-join pool into chunks of {@code app.statements.chunk-size} ids, each answered by one streaming query,
+ * and every account's summary is handed to the sink as soon as its rows have been read. Summaries are in
+ * account order within a chunk; chunks finish in any order.
+ *
+ * Periods that reach archived months (see {@link TransactionPartitions#reachesArchive}) also add up the
+ * matching rows of the archive segments. The catalog and the table are read in one repeatable-read
+ * transaction, and the archiver lists a segment and deletes its rows in one transaction, so every row is
+ * counted exactly once.
+ */
+@Service
+public class StatementService implements DisposableBean {
+    private final AccountCache accountCache;
+    private final TransactionPartitions partitions;
+    private final TransactionArchive archive;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int fetchSize;
+
+    public StatementService(AccountCache accountCache,
+                            TransactionPartitions partitions,
+                            TransactionArchive archive,
+                            JdbcTemplate jdbc,
+                            PlatformTransactionManager txManager,
+                            @Value("${app.statements.parallelism:4}") int parallelism,
+                            @Value("${app.statements.chunk-size:1000}") int chunkSize,
+                            @Value("${app.statements.fetch-size:1000}") int fetchSize) {
+        this.accountCache = accountCache;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.jdbc = jdbc;
+        this.readOnlyTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.readOnlyTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.fetchSize = fetchSize;
+    }
+
+    public AccountSummaryResponse summarize(Long accountId, OffsetDateTime from, OffsetDateTime to) {
+        validateRange(from, to);
+        accountCache.get(accountId)
+                .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+        List<AccountSummaryResponse> out = new ArrayList<>(1);
+        readOnlyTemplate.executeWithoutResult(status -> query(accountId, accountId, from, to, out::add));
+        return out.get(0);
+    }
+
+    /**
+     * Summarizes every account with {@code firstAccountId <= account_id <= lastAccountId} (either bound may be
+     * null for the lowest/highest id), including accounts without transactions in the period.
+     *
+     * @param sink called from pool threads, one call at a time
+     * @return the number of accounts summarized
+     */
+    public long statements(Long firstAccountId, Long lastAccountId, OffsetDateTime from, OffsetDateTime to,
+                           Consumer<AccountSummaryResponse> sink) {
+        validateRange(from, to);
+        long first = firstAccountId != null ? firstAccountId
+                : jdbc.queryForObject("select coalesce(min(account_id), 0) from accounts", Long.class);
+        long last = lastAccountId != null ? lastAccountId
+                : jdbc.queryForObject("select coalesce(max(account_id), -1) from accounts", Long.class);
+        if (first > last) return 0;
+
+        Consumer<AccountSummaryResponse> serialized = summary -> {
+            synchronized (sink) {
+                sink.accept(summary);
+            }
+        };
+        return pool.invoke(new Chunk(first, last, from, to, serialized));
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private final class Chunk extends RecursiveTask<Long> {
+        private final long first;
+        private final long last;
+        private final OffsetDateTime from;
+        private final OffsetDateTime to;
+        private final Consumer<AccountSummaryResponse> sink;
+
+        private Chunk(long first, long last, OffsetDateTime from, OffsetDateTime to,
+                      Consumer<AccountSummaryResponse> sink) {
+            this.first = first;
+            this.last = last;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+        }
+
+        @Override
+        protected Long compute() {
+            if (last - first < chunkSize) {
+                long[] count = new long[1];
+                readOnlyTemplate.executeWithoutResult(status -> query(first, last, from, to, summary -> {
+                    count[0]++;
+                    sink.accept(summary);
+                }));
+                return count[0];
+            }
+            long mid = first + (last - first) / 2;
+            Chunk left = new Chunk(first, mid, from, to, sink);
+            Chunk right = new Chunk(mid + 1, last, from, to, sink);
+            left.fork();
+            return right.compute() + left.join();
+        }
+    }
+
+    /** One pass over the grouped rows of an id range; rows arrive ordered by account, then operation type. */
+    private void query(long first, long last, OffsetDateTime from, OffsetDateTime to,
+                       Consumer<AccountSummaryResponse> sink) {
+        // account id -> operation type id -> {count, total} of the archived rows, read before the table
+        Map<Long, Map<Integer, long[]>> archived = new HashMap<>();
+        if (from == null || partitions.reachesArchive(from)) {
+            partitions.holdForRead();
+            archive.forEach(first, last, from, to, row -> {
+                long[] totals = archived.computeIfAbsent(row.accountId(), k -> new HashMap<>())
+                        .computeIfAbsent(row.operationTypeId(), k -> new long[2]);
+                totals[0]++;
+                totals[1] = Cents.add(totals[1], row.amount());
+            });
+        }
+
+        // the left join keeps accounts without transactions in the period, as a row with a null operation type
+        StringBuilder sql = new StringBuilder("select a.account_id, t.operation_type_id, count(t.transaction_id),"
+                + " coalesce(sum(t.amount), 0) from accounts a left join transactions t on t.account_id = a.account_id");
+        if (from != null) sql.append(" and t.event_date >= ?");
+        if (to != null) sql.append(" and t.event_date < ?");
+        sql.append(" where a.account_id between ? and ?"
+                + " group by a.account_id, t.operation_type_id order by a.account_id, t.operation_type_id");
+
+        Accumulator acc = new Accumulator(from, to, archived, sink);
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            ps.setFetchSize(fetchSize);
+            int i = 1;
+            if (from != null) ps.setObject(i++, from);
+            if (to != null) ps.setObject(i++, to);
+            ps.setLong(i++, first);
+            ps.setLong(i, last);
+            return ps;
+        }, rs -> {
+            int opId = rs.getInt(2);
+            acc.add(rs.getLong(1), rs.wasNull() ? null : opId, rs.getLong(3), Cents.fromDecimal(rs.getBigDecimal(4)));
+        });
+        acc.finish();
+    }
+
+    private static void validateRange(OffsetDateTime from, OffsetDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BusinessException("INVALID_DATE_RANGE", "from must be before to");
+        }
+    }
+
+    /** Folds consecutive rows of the same account, and its archived totals, into one summary. */
+    private static final class Accumulator {
+        private final OffsetDateTime from;
+        private final OffsetDateTime to;
+        private final Map<Long, Map<Integer, long[]>> archived;
+        private final Consumer<AccountSummaryResponse> sink;
+        private Long accountId;
+        private long count;
+        private long debits;
+        private long credits;
+        private List<OperationTypeTotal> types = new ArrayList<>();
+
+        private Accumulator(OffsetDateTime from, OffsetDateTime to, Map<Long, Map<Integer, long[]>> archived,
+                            Consumer<AccountSummaryResponse> sink) {
+            this.from = from;
+            this.to = to;
+            this.archived = archived;
+            this.sink = sink;
+        }
+
+        private void add(long account, Integer opId, long rowCount, long total) {
+            if (accountId != null && accountId != account) finish();
+            accountId = account;
+            if (opId == null) return;
+            Map<Integer, long[]> archivedTypes = archived.get(account);
+            long[] archivedTotals = archivedTypes == null ? null : archivedTypes.remove(opId);
+            if (archivedTotals != null) {
+                addType(opId, rowCount + archivedTotals[0], Cents.add(total, archivedTotals[1]));
+            } else {
+                addType(opId, rowCount, total);
+            }
+        }
+
+        private void addType(int opId, long rowCount, long total) {
+            count += rowCount;
+            if (total < 0) debits = Cents.add(debits, total);
+            else credits = Cents.add(credits, total);
+            types.add(new OperationTypeTotal(opId, rowCount, Cents.toDecimal(total)));
+        }
+
+        private void finish() {
+            if (accountId == null) return;
+            // operation types the account only has in archived months
+            Map<Integer, long[]> archivedTypes = archived.remove(accountId);
+            if (archivedTypes != null && !archivedTypes.isEmpty()) {
+                archivedTypes.forEach((opId, totals) -> addType(opId, totals[0], totals[1]));
+                types.sort(Comparator.comparing(OperationTypeTotal::operationTypeId));
+            }
+            sink.accept(new AccountSummaryResponse(accountId, from, to, count, Cents.toDecimal(debits),
+                    Cents.toDecimal(credits), Cents.toDecimal(Cents.add(debits, credits)), List.copyOf(types)));
+            accountId = null;
+            count = debits = credits = 0;
+            types = new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.Cents;
+import com.example.pismo.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Striped balances for hot accounts ({@code app.balances.stripes.enabled=true}). A striped account's balance
+ * is its {@code accounts.available_balance} plus the rows of {@code account_balance_stripes}. Credits that are
+ * not limit-checked add to one stripe picked at random instead of the account row, so N concurrent credits
+ * to the account lock N different rows rather than queueing on one.
+ *
+ * Everything else still goes through the account row. A limit-checked post locks it, reads the stripes and
+ * checks the limit against the total; credits it cannot see yet are still uncommitted, so the check can only
+ * err on the safe side. Debits that are not limit-checked update the account row as usual. The compactor
+ * ({@link #compact}) folds the stripes back into the account row under the same lock, stripes included, so a
+ * limit check never sees an amount twice or not at all.
+ *
+ * Which accounts are striped, and how many stripes each has, is the stripe table itself; it is read into
+ * memory at startup, after every {@link #configure}, and before every compaction.
+ *
+ * A credit on a stripe does not take the account row lock, so with the outbox enabled its event can be
+ * published out of the account's posting order. Startup refuses that combination unless
+ * {@code app.balances.stripes.unordered-outbox=true} says the consumers do not rely on per-account order.
+ */
+@Component
+public class StripedBalances implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(StripedBalances.class);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate txTemplate;
+    private final AccountCache accountCache;
+    private final boolean enabled;
+    private final int maxStripes;
+    // account id -> stripe count; accounts that are not striped are absent
+    private volatile Map<Long, Integer> stripes = Map.of();
+
+    public StripedBalances(JdbcTemplate jdbc,
+                           PlatformTransactionManager txManager,
+                           AccountCache accountCache,
+                           @Value("${app.balances.stripes.enabled:false}") boolean enabled,
+                           @Value("${app.balances.stripes.max-per-account:64}") int maxStripes,
+                           @Value("${app.ledger.engine.enabled:false}") boolean ledgerEngine,
+                           @Value("${app.ledger.append-only:false}") boolean appendOnly,
+                           @Value("${app.transactions.group-commit.enabled:false}") boolean groupCommit,
+                           @Value("${app.outbox.enabled:false}") boolean outbox,
+                           @Value("${app.balances.stripes.unordered-outbox:false}") boolean unorderedOutbox) {
+        if (enabled && (ledgerEngine || appendOnly || groupCommit)) {
+            throw new IllegalStateException("app.balances.stripes.enabled cannot be combined with "
+                    + "app.ledger.engine.enabled, app.ledger.append-only or app.transactions.group-commit.enabled");
+        }
+        if (enabled && outbox && !unorderedOutbox) {
+            throw new IllegalStateException("app.balances.stripes.enabled with app.outbox.enabled publishes credits "
+                    + "to striped accounts out of per-account order; set app.balances.stripes.unordered-outbox=true "
+                    + "to accept that");
+        }
+        this.jdbc = jdbc;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.accountCache = accountCache;
+        this.enabled = enabled;
+        this.maxStripes = maxStripes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) reload();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Number of stripes of the account; 0 when it is not striped. */
+    public int stripes(Long accountId) {
+        return stripes.getOrDefault(accountId, 0);
+    }
+
+    public Map<Long, Integer> configured() {
+        return stripes;
+    }
+
+    /**
+     * Applies a post to a striped account, in the caller's transaction. Throws {@code TOTAL_LIMIT_EXCEEDED}
+     * when a limit-checked post does not fit within the account's total balance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(Long accountId, long creditLimit, OperationTypeRules.Rule rule, long signedAmount) {
+        int count = stripes(accountId);
+        if (!rule.limitChecked() && signedAmount > 0 && count > 0) {
+            int stripe = ThreadLocalRandom.current().nextInt(count);
+            int updated = jdbc.update("update account_balance_stripes set balance = balance + ?"
+                    + " where account_id = ? and stripe = ?", Cents.toDecimal(signedAmount), accountId, stripe);
+            // 0 rows: the account was re-striped since the count was read, so take the account row instead
+            if (updated > 0) return;
+        }
+        if (rule.limitChecked()) {
+            long balance = lockedBalance(accountId);
+            if (!TransactionService.withinLimit(balance, creditLimit, signedAmount)) {
+                throw new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+            }
+        }
+        jdbc.update("update accounts set available_balance = available_balance + ? where account_id = ?",
+                Cents.toDecimal(signedAmount), accountId);
+    }
+
+    /** The account row's balance plus its stripes, with the account row locked until the caller commits. */
+    private long lockedBalance(Long accountId) {
+        BigDecimal row = jdbc.queryForObject("select available_balance from accounts where account_id = ? for update",
+                BigDecimal.class, accountId);
+        return Cents.add(Cents.fromDecimal(row), stripedBalance(accountId));
+    }
+
+    /** Sum of the account's stripes; the caller holds the account row lock, so no compaction moves them meanwhile. */
+    public long stripedBalance(Long accountId) {
+        BigDecimal sum = jdbc.queryForObject(
+                "select coalesce(sum(balance), 0) from account_balance_stripes where account_id = ?",
+                BigDecimal.class, accountId);
+        return Cents.fromDecimal(sum);
+    }
+
+    /** Sets the account's stripe count (0 turns striping off), folding its current stripes into the account row. */
+    public int configure(Long accountId, int count) {
+        if (!enabled) {
+            throw new BusinessException("STRIPES_DISABLED", "Set app.balances.stripes.enabled=true to stripe accounts");
+        }
+        if (count < 0 || count > maxStripes) {
+            throw new BusinessException("INVALID_STRIPES", "Stripes must be between 0 and " + maxStripes);
+        }
+        txTemplate.executeWithoutResult(status -> {
+            if (!fold(accountId)) throw new BusinessException("ACCOUNT_NOT_FOUND", "Account not found");
+            jdbc.update("delete from account_balance_stripes where account_id = ?", accountId);
+            if (count > 0) {
+                jdbc.batchUpdate("insert into account_balance_stripes (account_id, stripe, balance) values (?, ?, 0)",
+                        IntStream.range(0, count)
+                                .mapToObj(i -> new Object[]{accountId, i})
+                                .toList());
+            }
+        });
+        reload();
+        return count;
+    }
+
+    /** Folds every striped account with a non-zero stripe into its account row; returns how many were folded. */
+    public int compact() {
+        reload();
+        List<Long> pending = jdbc.queryForList(
+                "select distinct account_id from account_balance_stripes where balance <> 0", Long.class);
+        int folded = 0;
+        for (Long accountId : pending) {
+            try {
+                // one short transaction per account, so credits to the others are never held up
+                if (Boolean.TRUE.equals(txTemplate.execute(status -> fold(accountId)))) folded++;
+            } catch (RuntimeException ex) {
+                log.warn("Could not compact the stripes of account {}", accountId, ex);
+            }
+        }
+        return folded;
+    }
+
+    /** Moves the stripes' balance into the account row; false when the account does not exist. */
+    private boolean fold(Long accountId) {
+        // account row first, as limit-checked posts take it, then the stripes, so credits wait for the move
+        List<Long> row = jdbc.queryForList("select account_id from accounts where account_id = ? for update",
+                Long.class, accountId);
+        if (row.isEmpty()) return false;
+        List<BigDecimal> balances = jdbc.queryForList(
+                "select balance from account_balance_stripes where account_id = ? for update", BigDecimal.class,
+                accountId);
+        long sum = 0;
+        for (BigDecimal balance : balances) sum = Cents.add(sum, Cents.fromDecimal(balance));
+        if (sum != 0) {
+            jdbc.update("update account_balance_stripes set balance = 0 where account_id = ?", accountId);
+            jdbc.update("update accounts set available_balance = available_balance + ? where account_id = ?",
+                    Cents.toDecimal(sum), accountId);
+            accountCache.evict(accountId);
+        }
+        return true;
+    }
+
+    /** Re-reads which accounts are striped; returns how many are. */
+    public synchronized int reload() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbc.query("select account_id, count(*) from account_balance_stripes group by account_id",
+                rs -> { counts.put(rs.getLong(1), rs.getInt(2)); });
+        stripes = Map.copyOf(counts);
+        return counts.size();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.pismo.service;
+
+import com.example.pismo.archive.TransactionArchive;
+import com.example.pismo.archive.TransactionPartitions;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+
+/**
+ * Writes an account's transaction history straight from a forward-only JDBC result set to the response.
+ * Rows never become entities or DTOs, so memory stays flat however long the history is; the read runs in a
+ * read-only transaction so drivers that need one (PostgreSQL) use a server-side cursor with the fetch size.
+ * Archived months are streamed first, straight from their segment files one row group at a time.
+ */
+@Service
+public class TransactionExportService {
+    public enum Format { NDJSON, CSV }
+
+    static final String CSV_HEADER = "transaction_id,account_id,operation_type_id,amount,event_date\n";
+
+    private final AccountCache accountCache;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTemplate;
+    private final JsonFactory jsonFactory;
+    private final TransactionPartitions partitions;
+    private final TransactionArchive archive;
+    private final int fetchSize;
+
+    public TransactionExportService(AccountCache accountCache,
+                                    JdbcTemplate jdbc,
+                                    PlatformTransactionManager txManager,
+                                    ObjectMapper om,
+                                    TransactionPartitions partitions,
+                                    TransactionArchive archive,
+                                    @Value("${app.transactions.export.fetch-size:1000}") int fetchSize) {
+        this.accountCache = accountCache;
+        this.jdbc = jdbc;
+        this.readOnlyTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        // archive first, table second: an archiver run in between must not lose a month from both
+        this.readOnlyTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.jsonFactory = om.getFactory();
+        this.partitions = partitions;
+        this.archive = archive;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Fails before anything is written, so a bad request still gets a normal error response. */
+    public void validate(Long accountId, OffsetDateTime from, OffsetDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BusinessException("INVALID_DATE_RANGE", "from must be before to");
+        }
+        accountCache.get(accountId)
+                .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+    }
+
+    /**
+     * Streams the account's archived transactions month by month, then those in the table in id order;
+     * {@code from} is inclusive and {@code to} exclusive, both on {@code event_date} and both optional.
+     */
+    public void export(Long accountId, OffsetDateTime from, OffsetDateTime to, Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("select transaction_id, account_id, operation_type_id, amount, event_date"
+                + " from transactions where account_id = ?");
+        if (from != null) sql.append(" and event_date >= ?");
+        if (to != null) sql.append(" and event_date < ?");
+        sql.append(" order by transaction_id");
+
+        readOnlyTemplate.executeWithoutResult(status -> {
+            try (RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out)) {
+                if (from == null || partitions.reachesArchive(from)) {
+                    partitions.holdForRead();
+                    archive.forEach(accountId, from, to, row -> {
+                        try {
+                            writer.write(row.id(), row.accountId(), row.operationTypeId(),
+                                    Cents.toDecimal(row.amount()), row.eventDate());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                jdbc.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(sql.toString(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    int i = 1;
+                    ps.setLong(i++, accountId);
+                    if (from != null) ps.setObject(i++, from);
+                    if (to != null) ps.setObject(i, to);
+                    return ps;
+                }, rs -> {
+                    try {
+                        writer.write(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getBigDecimal(4),
+                                rs.getObject(5, OffsetDateTime.class));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(long id, long accountId, int operationTypeId, BigDecimal amount, OffsetDateTime eventDate)
+                throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator gen;
+        private boolean empty = true;
+
+        private NdjsonRowWriter(OutputStream out) throws IOException {
+            this.gen = jsonFactory.createGenerator(out);
+            // one object per line; the generator otherwise separates root values with a space
+            this.gen.setRootValueSeparator(new SerializedString("\n"));
+            this.gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(long id, long accountId, int operationTypeId, BigDecimal amount, OffsetDateTime eventDate)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("transaction_id", id);
+            gen.writeNumberField("account_id", accountId);
+            gen.writeNumberField("operation_type_id", operationTypeId);
+            gen.writeNumberField("amount", amount);
+            gen.writeStringField("event_date", eventDate.toString());
+            gen.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!empty) gen.writeRaw('\n');
+            gen.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            // every column is numeric or an ISO timestamp, so nothing needs quoting
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+            this.out.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(long id, long accountId, int operationTypeId, BigDecimal amount, OffsetDateTime eventDate)
+                throws IOException {
+            out.write(Long.toString(id));
+            out.write(',');
+            out.write(Long.toString(accountId));
+            out.write(',');
+            out.write(Integer.toString(operationTypeId));
+            out.write(',');
+            out.write(amount.toPlainString());
+            out.write(',');
+            out.write(eventDate.toString());
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -1,96 +1,253 @@
 package com.example.pismo.service;
 
+import com.example.pismo.archive.ArchivedTransaction;
+import com.example.pismo.archive.TransactionArchive;
+import com.example.pismo.archive.TransactionPartitions;
 import com.example.pismo.dto.TransactionRequest;
 import com.example.pismo.dto.TransactionResponse;
-import com.example.pismo.entity.Account;
+import com.example.pismo.dto.TransactionSliceResponse;
+import com.example.pismo.entity.Cents;
 import com.example.pismo.entity.Transaction;
 import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
 import com.example.pismo.repository.AccountRepository;
 import com.example.pismo.repository.TransactionRepository;
+import com.example.pismo.repository.TransactionView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TransactionService {
+    public static final int MAX_SLICE_SIZE = 1000;
+
     private final AccountRepository accountRepo;
     private final TransactionRepository txRepo;
-
-    public TransactionService(AccountRepository accountRepo, TransactionRepository txRepo) {
+    private final AccountCache accountCache;
+    private final BalanceSnapshotService snapshots;
+    private final OperationTypeRules operationTypes;
+    private final StripedBalances stripedBalances;
+    private final TransactionOutbox outbox;
+    private final TransactionPartitions partitions;
+    private final TransactionArchive archive;
+
+    // phases of post(), tagged on one timer name (pismo.transactions.post) so they stack into a breakdown
+    private final Timer lookupTimer;
+    private final Timer validateTimer;
+    private final Timer balanceTimer;
+    private final Timer insertTimer;
+
+    public TransactionService(AccountRepository accountRepo, TransactionRepository txRepo, AccountCache accountCache,
+                              BalanceSnapshotService snapshots, OperationTypeRules operationTypes,
+                              StripedBalances stripedBalances, TransactionOutbox outbox,
+                              TransactionPartitions partitions, TransactionArchive archive,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
         this.accountRepo = accountRepo;
         this.txRepo = txRepo;
+        this.accountCache = accountCache;
+        this.snapshots = snapshots;
+        this.operationTypes = operationTypes;
+        this.stripedBalances = stripedBalances;
+        this.outbox = outbox;
+        this.partitions = partitions;
+        this.archive = archive;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.lookupTimer = phaseTimer(registry, "account_lookup");
+        this.validateTimer = phaseTimer(registry, "validation");
+        this.balanceTimer = phaseTimer(registry, "limit_check_and_balance_update");
+        this.insertTimer = phaseTimer(registry, "insert");
+    }
+
+    private static Timer phaseTimer(MeterRegistry registry, String phase) {
+        return Timer.builder("pismo.transactions.post")
+                .description("Time spent in each phase of posting a single transaction")
+                .tag("phase", phase)
+                .register(registry);
     }
 
     @Transactional
     public TransactionResponse post(TransactionRequest req) {
-        Account account = accountRepo.findById(req.accountId())
+        long start = System.nanoTime();
+        AccountSnapshot account = accountCache.get(req.accountId())
                 .orElseThrow(() -> new BusinessException("ACCOUNT_NOT_FOUND", "Account not found"));
+        start = record(lookupTimer, start);
 
-        int opId = validateOperationType(req.operationTypeId());
+        OperationTypeRules.Rule rule = operationTypes.require(req.operationTypeId());
+        long amount = validateAmount(req);
 
-        if (req.amount() == null || req.amount().signum() <= 0) {
-            throw new BusinessException("INVALID_AMOUNT", "Amount must be > 0");
-        }
+        // normalize: credits (payments) => +amount, debits => -amount
+        long signedAmount = rule.signed(amount);
+        start = record(validateTimer, start);
 
-        // normalize: opId 4 (payment) => +amount, others => -amount
-        BigDecimal signedAmount = normalizeAmountSign(opId, req.amount());
-
-        // --- validate against limit BEFORE mutating state ---
-        if (opId != 4) { // debit operations only
-            BigDecimal available = account.getAvailableBalance().add(account.getCreditLimit());
-            // compare using the positive magnitude of the debit
-            BigDecimal debit = req.amount().abs();
-            if (debit.compareTo(available) > 0) {
+        if (snapshots.isAppendOnly()) {
+            // --- append-only: the balance is the snapshot plus later transactions, read under the row lock ---
+            BalanceSnapshotService.Position position = snapshots.lockPosition(account.id());
+            if (rule.limitChecked() && !withinLimit(position.balance(), account.creditLimit(), signedAmount)) {
+                throw new BusinessException("TOTAL_LIMIT_EXCEEDED", "Transaction amount exceeds available limit");
+            }
+        } else if (stripedBalances.stripes(account.id()) > 0) {
+            // --- hot account: credits go to one of its stripe rows, limit checks lock the row and add the stripes ---
+            stripedBalances.post(account.id(), account.creditLimit(), rule, signedAmount);
+            accountCache.evict(account.id());
+        } else {
+            // --- limit check and balance update in one conditional UPDATE (limit-checked types only) ---
+            // no row lock or read-modify-write, so parallel debits can never overspend the limit
+            int updated = rule.limitChecked()
+                    ? accountRepo.applyBalanceDeltaWithinLimit(account.id(), signedAmount)
+                    : accountRepo.applyBalanceDelta(account.id(), signedAmount);
+            if (updated == 0) {
                 throw new BusinessException(
                         "TOTAL_LIMIT_EXCEEDED",
                         "Transaction amount exceeds available limit"
                 );
             }
+            accountCache.evict(account.id());
         }
+        start = record(balanceTimer, start);
 
-        // persist and apply
-        Transaction tx = new Transaction(account, opId, signedAmount);
-        txRepo.save(tx);
+        // persist; flushed here rather than at commit so the insert phase measures the actual INSERT
+        Transaction tx = new Transaction(accountRepo.getReferenceById(account.id()), rule.id(), signedAmount);
+        txRepo.saveAndFlush(tx);
+        outbox.append(List.of(tx));
+        snapshots.appended(account.id(), tx.getId(), signedAmount);
+        record(insertTimer, start);
 
-        account.addToBalance(signedAmount);
-        accountRepo.save(account);
-
-        return new TransactionResponse(
+        return TransactionResponse.ofCents(
                 tx.getId(),
-                account.getId(),
+                account.id(),
                 tx.getOperationTypeId(),
                 tx.getAmount()
         );
     }
 
-    private int validateOperationType(Integer id) {
-        if (id == null || id < 1 || id > 4) throw new BusinessException("INVALID_OPERATION_TYPE", "Valid ids: 1..4");
-        return id;
+    // rejected requests are not recorded, so every phase sample comes from a request that got that far
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /** Returns the amount in cents; amounts that round to zero cents are rejected like any other non-positive one. */
+    public static long validateAmount(TransactionRequest req) {
+        if (req.amount() == null || req.amount().signum() <= 0) {
+            throw new BusinessException("INVALID_AMOUNT", "Amount must be > 0");
+        }
+        long cents;
+        try {
+            cents = req.amountInCents();
+        } catch (ArithmeticException e) {
+            throw new BusinessException("INVALID_AMOUNT", "Amount is out of range");
+        }
+        if (cents == 0) throw new BusinessException("INVALID_AMOUNT", "Amount must be > 0");
+        return cents;
     }
 
-    private BigDecimal normalizeAmountSign(int opId, BigDecimal amount) {
-        if (amount == null) throw new BusinessException("INVALID_AMOUNT", "Amount is required");
-        BigDecimal abs = amount.abs();
-        return (opId == 4) ? abs : abs.negate();
+    /** Whether applying {@code delta} keeps the balance within the credit limit; all values in cents. */
+    static boolean withinLimit(long balance, long creditLimit, long delta) {
+        return Cents.add(Cents.add(balance, creditLimit), delta) >= 0;
     }
 
+    /** Looks in the table first and in the archive when the id is not there. */
     @Transactional(readOnly = true)
     public TransactionResponse get(Long id) {
-        Transaction tx = txRepo.findById(id)
+        return txRepo.findViewById(id)
+                .or(() -> archive.find(id).map(ArchivedTransaction::toView))
+                .map(TransactionService::toResponse)
                 .orElseThrow(() -> new BusinessException("TRANSACTION_NOT_FOUND", "Transaction not found: " + id));
-        return toResponse(tx);
     }
 
     @Transactional(readOnly = true)
     public Page<TransactionResponse> findByAccount(Long accountId, Pageable pageable) {
-        return txRepo.findByAccountId(accountId, pageable)
-                .map(this::toResponse);
+        return findByAccount(accountId, null, pageable);
+    }
+
+    /**
+     * Pages the account's transactions since {@code from}, by default the recent partitions. Offset pages are
+     * not merged with the archive: a {@code from} that reaches months archived for the account is rejected
+     * ({@code ARCHIVED_PERIOD}) rather than answered with a partial page and total. The catalog and the table
+     * are read in one repeatable-read transaction, so a month archived meanwhile cannot slip in between.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Page<TransactionResponse> findByAccount(Long accountId, @Nullable OffsetDateTime from, Pageable pageable) {
+        OffsetDateTime since = partitions.from(from);
+        if (partitions.reachesArchive(since) && archive.mayHold(accountId, since)) {
+            throw new BusinessException("ARCHIVED_PERIOD", "Transactions of this account before "
+                    + partitions.recentFrom() + " may be archived; page them with /transactions/history "
+                    + "or stream them with /transactions/export");
+        }
+        return txRepo.findByAccountIdSince(accountId, since, pageable)
+                .map(TransactionService::toResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionSliceResponse findByAccountAfterCursor(Long accountId, String cursor, int size) {
+        return findByAccountAfterCursor(accountId, cursor, size, null);
+    }
+
+    /**
+     * Newest-first slice of the account's transactions since {@code from}, by default the recent partitions.
+     * An older {@code from} also reads archived months, merged with the table by id.
+     */
+    @Transactional(readOnly = true)
+    public TransactionSliceResponse findByAccountAfterCursor(Long accountId, String cursor, int size,
+                                                             @Nullable OffsetDateTime from) {
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new BusinessException("INVALID_PAGE_SIZE", "Size must be between 1 and " + MAX_SLICE_SIZE);
+        }
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : decodeCursor(cursor);
+        OffsetDateTime since = partitions.from(from);
+        Slice<TransactionView> slice = txRepo.findByAccountIdBefore(accountId, beforeId, since, PageRequest.of(0, size));
+        List<TransactionView> rows = slice.getContent();
+        boolean hasNext = slice.hasNext();
+
+        if (partitions.reachesArchive(since)) {
+            // the archive is read after the table, so rows archived in between are found in one or both; ids dedupe
+            TreeMap<Long, TransactionView> merged = new TreeMap<>(Comparator.reverseOrder());
+            rows.forEach(row -> merged.put(row.id(), row));
+            archive.before(accountId, beforeId, since, size + 1).forEach(row -> merged.putIfAbsent(row.id(), row.toView()));
+            hasNext = hasNext || merged.size() > size;
+            rows = merged.values().stream().limit(size).toList();
+        }
+
+        var content = rows.stream().map(TransactionService::toResponse).toList();
+        String next = hasNext ? encodeCursor(content.get(content.size() - 1).transactionId()) : null;
+        return new TransactionSliceResponse(content, hasNext, next);
+    }
+
+    // the cursor is the last transaction id seen, kept opaque so the seek key can change without breaking clients
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("t:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith("t:")) throw new IllegalArgumentException(raw);
+            return Long.parseLong(raw.substring(2));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_CURSOR", "Cursor is not valid");
+        }
     }
 
-    private TransactionResponse toResponse(Transaction tx) {
-        return new TransactionResponse(tx.getId(), tx.getAccount().getId(), tx.getOperationTypeId(), tx.getAmount());
+    private static TransactionResponse toResponse(TransactionView tx) {
+        return TransactionResponse.ofCents(tx.id(), tx.accountId(), tx.operationTypeId(), tx.amount());
     }
 }
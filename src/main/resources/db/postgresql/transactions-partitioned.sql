@@ -0,0 +1,25 @@
+-- PostgreSQL only: creates transactions range-partitioned by month on event_date. Run it on an empty database
+-- before the first start; Hibernate (ddl-auto: update) then finds the table and only adds what is missing,
+-- such as the other tables and the foreign key to accounts.
+-- The application (TransactionPartitions) creates the monthly partitions transactions_pYYYY_MM ahead of time,
+-- and drops each one once the archiver has emptied it. H2 has no declarative partitioning and keeps one table.
+
+create sequence if not exists transactions_seq start with 1 increment by 50;
+
+create table transactions (
+    transaction_id    bigint                      not null,
+    account_id        bigint                      not null,
+    operation_type_id integer                     not null,
+    amount            numeric(19, 2)              not null,
+    event_date        timestamp(6) with time zone not null,
+    -- a partitioned table's keys must include the partition column
+    primary key (transaction_id, event_date)
+) partition by range (event_date);
+
+-- the JDBC driver does not report indexes of a partitioned table, so at every start ddl-auto: update tries to
+-- create these again and logs that they already exist; that is harmless
+create index idx_tx_account_id on transactions (account_id, transaction_id);
+create index idx_tx_account_type_date on transactions (account_id, operation_type_id, event_date);
+
+-- catches rows for months without a partition yet; keep it empty, or the month's partition cannot be created
+create table transactions_default partition of transactions default;
@@ -0,0 +1,148 @@
+package com.example.pismo.archive;
+
+import com.example.pismo.dto.AccountSummaryResponse;
+import com.example.pismo.dto.OperationTypeTotal;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.dto.TransactionSliceResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.service.BalanceSnapshotService;
+import com.example.pismo.service.StatementService;
+import com.example.pismo.service.TransactionExportService;
+import com.example.pismo.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// archiving is triggered by the test rather than the schedule
+@SpringBootTest(properties = {
+        "app.transactions.archive.enabled=true",
+        "app.transactions.archive.directory=target/archive-test",
+        "app.transactions.archive.interval=PT1H",
+        "app.transactions.archive.row-group-size=2"})
+@ActiveProfiles("test")
+class TransactionArchiveTest {
+
+    @Autowired TransactionService txService;
+    @Autowired TransactionExportService exportService;
+    @Autowired StatementService statements;
+    @Autowired BalanceSnapshotService snapshots;
+    @Autowired TransactionArchiver archiver;
+    @Autowired TransactionArchive archive;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenOldMonths_whenArchived_thenDefaultReadsSkipThemAndHistoryExportAndLookupStillFindThem() throws Exception {
+        // Given: three transactions aged into March and April 2019, and one from now
+        Account account = accountRepo.save(new Account("ARCHIVE-1", 100_000L));
+        long a = post(account, 1, "10.00");
+        long b = post(account, 1, "20.00");
+        long c = post(account, 4, "5.00");
+        long d = post(account, 1, "1.00");
+        age(a, "2019-03-10 10:00:00+00");
+        age(b, "2019-03-20 10:00:00+02");
+        age(c, "2019-04-05 08:30:00+00");
+
+        // reads without from only see the recent partitions
+        assertEquals(List.of(d), ids(txService.findByAccountAfterCursor(account.getId(), null, 10)));
+        assertEquals(1, txService.findByAccount(account.getId(), PageRequest.of(0, 10)).getTotalElements());
+
+        // When
+        TransactionArchiver.ArchiveResult result = archiver.archive();
+
+        // Then: the old rows left the table for segment files
+        assertTrue(result.rows() >= 3, result.toString());
+        assertEquals(1, jdbc.queryForObject("select count(*) from transactions where account_id = ?",
+                Integer.class, account.getId()));
+        List<TransactionArchive.Segment> segments = archive.segments().stream()
+                .filter(s -> s.minAccountId() <= account.getId() && account.getId() <= s.maxAccountId())
+                .toList();
+        assertTrue(segments.stream().anyMatch(s -> s.rangeStart().isEqual(OffsetDateTime.parse("2019-03-01T00:00Z"))));
+        assertTrue(segments.stream().anyMatch(s -> s.rangeStart().isEqual(OffsetDateTime.parse("2019-04-01T00:00Z"))));
+        for (TransactionArchive.Segment segment : segments) {
+            assertTrue(Files.exists(archive.directory().resolve(segment.fileName())), segment.fileName());
+        }
+
+        // history from 2019 pages through the table and the archive, newest first
+        OffsetDateTime from = OffsetDateTime.parse("2019-01-01T00:00Z");
+        TransactionSliceResponse first = txService.findByAccountAfterCursor(account.getId(), null, 2, from);
+        TransactionSliceResponse second = txService.findByAccountAfterCursor(account.getId(), first.nextCursor(), 2, from);
+        assertEquals(List.of(d, c), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of(b, a), ids(second));
+        assertFalse(second.hasNext());
+        // a from inside an archived month also bounds the archived rows
+        assertEquals(List.of(d, c, b), ids(txService.findByAccountAfterCursor(account.getId(), null, 10,
+                OffsetDateTime.parse("2019-03-15T00:00Z"))));
+
+        // lookups by id fall back to the archive
+        assertEquals(0, txService.get(b).amount().compareTo(new BigDecimal("-20.00")));
+
+        // export streams the archived months first, with their original event dates
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(account.getId(), null, null, TransactionExportService.Format.CSV, out);
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, rows.length);
+        assertEquals(a + "," + account.getId() + ",1,-10.00,2019-03-10T10:00Z", rows[1]);
+        assertEquals(b + "," + account.getId() + ",1,-20.00,2019-03-20T10:00+02:00", rows[2]);
+        assertEquals(c + "," + account.getId() + ",4,5.00,2019-04-05T08:30Z", rows[3]);
+        assertTrue(rows[4].startsWith(d + ","), rows[4]);
+
+        // summaries and statements add up the archived months; type 4 only has archived rows
+        AccountSummaryResponse summary = statements.summarize(account.getId(), null, null);
+        assertEquals(4, summary.transactionCount());
+        assertEquals(0, summary.debits().compareTo(new BigDecimal("-31.00")));
+        assertEquals(0, summary.credits().compareTo(new BigDecimal("5.00")));
+        assertEquals(List.of(1, 4), summary.operationTypes().stream().map(OperationTypeTotal::operationTypeId).toList());
+        assertEquals(3, summary.operationTypes().get(0).count());
+        List<AccountSummaryResponse> run = new ArrayList<>();
+        statements.statements(account.getId(), account.getId(), null, null, run::add);
+        assertEquals(List.of(summary), run);
+        AccountSummaryResponse march = statements.summarize(account.getId(),
+                OffsetDateTime.parse("2019-03-15T00:00Z"), OffsetDateTime.parse("2019-04-01T00:00Z"));
+        assertEquals(1, march.transactionCount());
+        assertEquals(0, march.net().compareTo(new BigDecimal("-20.00")));
+
+        // offset pages are not merged with the archive, so a from that reaches it is refused
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.findByAccount(account.getId(), from, PageRequest.of(0, 10)));
+        assertEquals("ARCHIVED_PERIOD", ex.getCode());
+        assertEquals(1, txService.findByAccount(account.getId(), PageRequest.of(0, 10)).getTotalElements());
+
+        // the balance snapshot covers what was archived, so the history still adds up to the balance
+        assertEquals(-2_600L, snapshots.position(account.getId()).balance());
+
+        // a second run finds nothing left to move
+        assertEquals(0, archiver.archive().rows());
+    }
+
+    private long post(Account account, int operationTypeId, String amount) {
+        return txService.post(new TransactionRequest(account.getId(), operationTypeId, new BigDecimal(amount)))
+                .transactionId();
+    }
+
+    private void age(long transactionId, String eventDate) {
+        jdbc.update("update transactions set event_date = cast(? as timestamp with time zone) where transaction_id = ?",
+                eventDate, transactionId);
+    }
+
+    private static List<Long> ids(TransactionSliceResponse slice) {
+        return slice.content().stream().map(TransactionResponse::transactionId).toList();
+    }
+}
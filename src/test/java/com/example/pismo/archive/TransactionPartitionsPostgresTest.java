@@ -0,0 +1,199 @@
+package com.example.pismo.archive;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.service.TransactionExportService;
+import com.example.pismo.service.TransactionService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+
+// transactions is created partitioned by the shipped script before the context starts, as in production
+@SpringBootTest(properties = {
+        "app.transactions.archive.enabled=true",
+        "app.transactions.archive.directory=target/archive-postgres-test",
+        "app.transactions.archive.interval=PT1H"})
+@ActiveProfiles("test")
+@DirtiesContext
+class TransactionPartitionsPostgresTest {
+    static EmbeddedPostgres postgres;
+
+    @Autowired TransactionPartitions partitions;
+    @Autowired TransactionArchiver archiver;
+    @Autowired TransactionService txService;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired TransactionExportService exportService;
+    @Autowired DataSource dataSource;
+    @SpyBean TransactionArchive archive;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        try (Connection con = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(con, new ClassPathResource("db/postgresql/transactions-partitioned.sql"));
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void givenPartitionedTable_whenStarted_thenThisMonthAndTheNextOnesExist() {
+        // Then: months-ahead is 3
+        assertTrue(partitions.isDeclarative());
+        OffsetDateTime month = TransactionPartitions.monthStart(OffsetDateTime.now(ZoneOffset.UTC));
+        List<String> tables = partitionTables();
+        for (int i = 0; i <= 3; i++) {
+            assertTrue(tables.contains(TransactionPartitions.tableName(month.plusMonths(i))), tables.toString());
+        }
+
+        // and posting lands in this month's partition, not the default one
+        Account account = accountRepo.save(new Account("PG-PART-1", 100_000L));
+        long id = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("1.00"))).transactionId();
+        assertEquals(1, jdbc.queryForObject("select count(*) from " + TransactionPartitions.tableName(month)
+                + " where transaction_id = ?", Integer.class, id));
+        assertEquals(0, jdbc.queryForObject("select count(*) from transactions_default", Integer.class));
+    }
+
+    @Test
+    void givenAFromBound_whenPlanningAHistoryRead_thenOlderMonthsArePruned() {
+        // Given: a month well before the recent ones
+        createPartition(OffsetDateTime.parse("2018-01-01T00:00Z"));
+
+        // When: the shape of findByAccountIdBefore, with the default lower bound
+        String plan = String.join("\n", jdbc.queryForList("explain select transaction_id from transactions"
+                + " where account_id = 1 and transaction_id < 1000 and event_date >= '" + partitions.recentFrom() + "'"
+                + " order by transaction_id desc", String.class));
+
+        // Then
+        assertFalse(plan.contains("transactions_p2018_01"), plan);
+        assertTrue(plan.contains(TransactionPartitions.tableName(
+                TransactionPartitions.monthStart(OffsetDateTime.now(ZoneOffset.UTC)))), plan);
+    }
+
+    @Test
+    void givenAnOldMonth_whenArchived_thenItsPartitionIsDroppedAndItsRowsStayReadable() {
+        // Given: a partition for March 2019 (created ahead back then) holding two transactions
+        OffsetDateTime march = OffsetDateTime.parse("2019-03-01T00:00Z");
+        createPartition(march);
+        Account account = accountRepo.save(new Account("PG-ARCHIVE-1", 100_000L));
+        long a = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00"))).transactionId();
+        long b = txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("2.50"))).transactionId();
+        // updating the partition key moves the rows into the March partition
+        jdbc.update("update transactions set event_date = ? where transaction_id in (?, ?)", march.plusDays(9), a, b);
+        assertEquals(2, jdbc.queryForObject("select count(*) from transactions_p2019_03", Integer.class));
+        assertFalse(partitions.dropIfEmpty(march));
+
+        // When
+        TransactionArchiver.ArchiveResult result = archiver.archive();
+
+        // Then: the rows left the table, the month's partition went with them, and lookups find the archive
+        assertTrue(result.rows() >= 2, result.toString());
+        assertFalse(partitionTables().contains("transactions_p2019_03"));
+        assertEquals(0, jdbc.queryForObject("select count(*) from transactions where transaction_id in (?, ?)",
+                Integer.class, a, b));
+        assertEquals(0, txService.get(a).amount().compareTo(new BigDecimal("-10.00")));
+        assertEquals(0, txService.get(b).amount().compareTo(new BigDecimal("2.50")));
+        // create-ahead still holds after the run
+        assertTrue(partitionTables().contains(TransactionPartitions.tableName(
+                TransactionPartitions.monthStart(OffsetDateTime.now(ZoneOffset.UTC)).plusMonths(3))));
+    }
+
+    @Test
+    void givenAnArchiverRunBetweenTheArchiveAndTheTableRead_whenExporting_thenNoRowGoesMissing() throws Exception {
+        // Given: two transactions in May 2019, which no archiver run has seen yet
+        OffsetDateTime may = OffsetDateTime.parse("2019-05-01T00:00Z");
+        createPartition(may);
+        Account account = accountRepo.save(new Account("PG-EXPORT-1", 100_000L));
+        long a = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00"))).transactionId();
+        long b = txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("2.50"))).transactionId();
+        jdbc.update("update transactions set event_date = ? where transaction_id in (?, ?)", may.plusDays(3), a, b);
+
+        // and an archiver run that starts as soon as the export has read the (still empty) catalog, and is let
+        // go on once it has moved May into the archive
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        List<Future<TransactionArchiver.ArchiveResult>> run = new ArrayList<>();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            run.add(runner.submit(archiver::archive));
+            // polled outside the export's transaction, which would keep seeing its own snapshot
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            try (Connection con = dataSource.getConnection();
+                 PreparedStatement ps = con.prepareStatement(
+                         "select count(*) from transaction_archive_segments where range_start = ?")) {
+                ps.setObject(1, may);
+                while (true) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next() && rs.getInt(1) > 0) break;
+                    }
+                    assertTrue(System.nanoTime() < deadline, "archiver did not move May");
+                    Thread.sleep(20);
+                }
+            }
+            return null;
+        }).when(archive).forEach(eq(account.getId()), isNull(), isNull(), any());
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(account.getId(), null, null, TransactionExportService.Format.CSV, out);
+        run.get(0).get(30, TimeUnit.SECONDS);
+        runner.shutdown();
+
+        // Then: both rows were exported from the table, and the run still dropped the emptied partition
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.contains("\n" + a + ","), csv);
+        assertTrue(csv.contains("\n" + b + ","), csv);
+        assertFalse(partitionTables().contains("transactions_p2019_05"));
+    }
+
+    private void createPartition(OffsetDateTime month) {
+        jdbc.execute("create table if not exists " + TransactionPartitions.tableName(month) + " partition of transactions"
+                + " for values from ('" + month + "') to ('" + month.plusMonths(1) + "')");
+    }
+
+    private List<String> partitionTables() {
+        return jdbc.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+                + " join pg_class p on p.oid = i.inhparent where p.relname = 'transactions'", String.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.pismo.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSegmentFileTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void givenRowsOverSeveralGroups_whenWrittenAndRead_thenEveryValueAndRangeRoundTrips() throws IOException {
+        // Given: 10 rows of 3 accounts in groups of 4, with negative amounts, micros and offsets
+        List<ArchivedTransaction> rows = new ArrayList<>();
+        OffsetDateTime base = OffsetDateTime.parse("2019-03-01T00:00:00.000001-03:00");
+        for (int i = 0; i < 10; i++) {
+            long accountId = 7 + i / 4 * 1_000_000_000L;
+            rows.add(new ArchivedTransaction(1_000 + (i % 3) * 500L + i, accountId, i % 4 + 1,
+                    i % 2 == 0 ? -1_234_567_890_123L * i : 5L * i,
+                    base.plusSeconds(i * 86_400L).plusNanos(i * 1_000L)
+                            .withOffsetSameInstant(ZoneOffset.ofHours(i % 3 - 1))));
+        }
+        rows.sort((x, y) -> x.accountId() != y.accountId() ? Long.compare(x.accountId(), y.accountId())
+                : Long.compare(x.id(), y.id()));
+
+        // When
+        Path file = dir.resolve("segment.ptxs");
+        try (TransactionSegmentFile.Writer writer = new TransactionSegmentFile.Writer(file, 4)) {
+            for (ArchivedTransaction r : rows) {
+                writer.add(r.id(), r.accountId(), r.operationTypeId(), r.amount(), r.eventDate());
+            }
+            assertEquals(10, writer.finish());
+        }
+
+        // Then
+        List<TransactionSegmentFile.Group> groups = TransactionSegmentFile.readFooter(file);
+        assertEquals(List.of(4, 4, 2), groups.stream().map(TransactionSegmentFile.Group::rows).toList());
+        List<ArchivedTransaction> read = new ArrayList<>();
+        for (TransactionSegmentFile.Group group : groups) {
+            TransactionSegmentFile.Columns columns = TransactionSegmentFile.readGroup(file, group);
+            for (int i = 0; i < columns.rows(); i++) {
+                ArchivedTransaction r = columns.row(i);
+                assertTrue(group.mayHoldAccount(r.accountId()) && group.mayHoldId(r.id()));
+                read.add(r);
+            }
+        }
+        assertEquals(rows, read);
+
+        TransactionSegmentFile.Columns middle = TransactionSegmentFile.readGroup(file, groups.get(1));
+        assertEquals(0, middle.firstOf(1_000_000_007L));
+        assertEquals(middle.rows(), middle.firstOf(7L));
+        assertEquals(0, middle.firstFrom(7L));
+        assertEquals(middle.rows(), middle.firstFrom(1_000_000_008L));
+    }
+
+    @Test
+    void givenAFileThatIsNotASegment_whenReadingTheFooter_thenThrows() throws IOException {
+        Path file = Files.write(dir.resolve("other.ptxs"), new byte[64]);
+        assertThrows(IOException.class, () -> TransactionSegmentFile.readFooter(file));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.pismo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAuthenticationProviderTest {
+
+    AtomicInteger bcryptChecks = new AtomicInteger();
+    PasswordEncoder encoder;
+    InMemoryUserDetailsManager users;
+    CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        encoder = new PasswordEncoder() {
+            public String encode(CharSequence raw) { return bcrypt.encode(raw); }
+            public boolean matches(CharSequence raw, String encoded) {
+                bcryptChecks.incrementAndGet();
+                return bcrypt.matches(raw, encoded);
+            }
+        };
+        users = new InMemoryUserDetailsManager(
+                User.withUsername("api").password(encoder.encode("pismo123")).roles("USER").build());
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(users);
+        dao.setPasswordEncoder(encoder);
+        provider = new CachingAuthenticationProvider(dao, users, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void givenVerifiedCredentials_whenAuthenticatingAgain_thenBcryptIsNotRepeated() {
+        // When
+        Authentication first = provider.authenticate(basic("api", "pismo123"));
+        Authentication second = provider.authenticate(basic("api", "pismo123"));
+
+        // Then
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals("api", second.getName());
+        assertEquals(1, bcryptChecks.get());
+    }
+
+    @Test
+    void givenWrongPassword_whenAuthenticating_thenRejectedEveryTime() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("api", "nope")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("api", "nope")));
+        assertEquals(2, bcryptChecks.get());
+    }
+
+    @Test
+    void givenPasswordChangedInUserStore_whenOldCredentialsReplayed_thenCacheEntryIsIgnored() {
+        // Given
+        provider.authenticate(basic("api", "pismo123"));
+
+        // When: user store (source of truth) gets a new password
+        users.updateUser(User.withUsername("api").password(encoder.encode("rotated")).roles("USER").build());
+
+        // Then
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("api", "pismo123")));
+        assertTrue(provider.authenticate(basic("api", "rotated")).isAuthenticated());
+    }
+
+    @Test
+    void givenUserDisabledInUserStore_whenCachedCredentialsReplayed_thenRejected() {
+        // Given
+        provider.authenticate(basic("api", "pismo123"));
+        String hash = users.loadUserByUsername("api").getPassword();
+
+        // When
+        users.updateUser(User.withUsername("api").password(hash).roles("USER").disabled(true).build());
+
+        // Then
+        assertThrows(DisabledException.class, () -> provider.authenticate(basic("api", "pismo123")));
+    }
+
+    private static UsernamePasswordAuthenticationToken basic(String user, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(user, password);
+    }
+}
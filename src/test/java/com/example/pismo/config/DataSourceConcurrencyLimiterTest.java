@@ -0,0 +1,44 @@
+package com.example.pismo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConcurrencyLimiterTest {
+
+    DataSourceConcurrencyLimiter limiter = new DataSourceConcurrencyLimiter(2, Duration.ofMillis(20));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void givenAllPermitsInUse_whenAnotherRequestArrives_thenItIsShed() throws Exception {
+        // Given
+        var first = new MockHttpServletRequest();
+        var second = new MockHttpServletRequest();
+        assertTrue(limiter.preHandle(first, response, null));
+        assertTrue(limiter.preHandle(second, response, null));
+
+        // When + Then
+        assertThrows(RejectedExecutionException.class,
+                () -> limiter.preHandle(new MockHttpServletRequest(), response, null));
+
+        // And: completing one request frees its permit
+        limiter.afterCompletion(first, response, null, null);
+        assertTrue(limiter.preHandle(new MockHttpServletRequest(), response, null));
+    }
+
+    @Test
+    void givenRequestCompletedTwice_whenReleasing_thenPermitIsReturnedOnlyOnce() throws Exception {
+        var request = new MockHttpServletRequest();
+        limiter.preHandle(request, response, null);
+
+        limiter.afterCompletion(request, response, null, null);
+        limiter.afterCompletion(request, response, null, null);
+
+        assertEquals(2, limiter.availablePermits());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.pismo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PersistenceTuningConfigTest {
+
+    @Test
+    void givenNoExplicitPoolSize_whenDataSourceIsCreated_thenPoolIsSizedFromCores() {
+        // Given
+        var env = new MockEnvironment().withProperty("app.persistence.pool.connections-per-core", "3");
+        var hikari = new HikariDataSource();
+
+        // When
+        PersistenceTuningConfig.hikariPoolSizer(env).postProcessAfterInitialization(hikari, "dataSource");
+
+        // Then
+        int cores = Runtime.getRuntime().availableProcessors();
+        assertEquals(Math.max(2, cores * 3 + 1), hikari.getMaximumPoolSize());
+    }
+
+    @Test
+    void givenExplicitPoolSize_whenDataSourceIsCreated_thenItIsLeftAlone() {
+        // Given: a profile pins the pool
+        var env = new MockEnvironment().withProperty(PersistenceTuningConfig.MAXIMUM_POOL_SIZE, "7");
+        var hikari = new HikariDataSource();
+        hikari.setMaximumPoolSize(7);
+
+        // When
+        PersistenceTuningConfig.hikariPoolSizer(env).postProcessAfterInitialization(hikari, "dataSource");
+
+        // Then
+        assertEquals(7, hikari.getMaximumPoolSize());
+        assertEquals(2, PersistenceTuningConfig.poolSize(0, 2, 1));
+    }
+}
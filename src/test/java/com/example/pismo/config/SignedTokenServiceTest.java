@@ -0,0 +1,44 @@
+package com.example.pismo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenServiceTest {
+
+    Clock now = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void givenIssuedToken_whenVerified_thenReturnsUsername() {
+        SignedTokenService tokens = new SignedTokenService("secret", Duration.ofMinutes(15), now);
+
+        var issued = tokens.issue("api");
+
+        assertEquals("api", tokens.verify(issued.token()));
+        assertEquals(Instant.parse("2026-01-01T00:15:00Z"), issued.expiresAt());
+    }
+
+    @Test
+    void givenTamperedOrForeignToken_whenVerified_thenRejected() {
+        SignedTokenService tokens = new SignedTokenService("secret", Duration.ofMinutes(15), now);
+        SignedTokenService other = new SignedTokenService("other-secret", Duration.ofMinutes(15), now);
+        String token = tokens.issue("api").token();
+
+        assertNull(other.verify(token));
+        assertNull(tokens.verify("x" + token));
+        assertNull(tokens.verify("garbage"));
+    }
+
+    @Test
+    void givenExpiredToken_whenVerified_thenRejected() {
+        String token = new SignedTokenService("secret", Duration.ofMinutes(15), now).issue("api").token();
+        Clock later = Clock.offset(now, Duration.ofMinutes(16));
+
+        assertNull(new SignedTokenService("secret", Duration.ofMinutes(15), later).verify(token));
+    }
+}
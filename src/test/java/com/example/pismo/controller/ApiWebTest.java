@@ -5,6 +5,7 @@ import com.example.pismo.entity.Account;
 import com.example.pismo.repository.AccountRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -20,6 +22,7 @@ import java.math.BigDecimal;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
@@ -33,12 +36,16 @@ class ApiWebTest {
     @Autowired MockMvc mockMvc;
     @Autowired ObjectMapper om;
     @Autowired AccountRepository accountRepo;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired JdbcTemplate jdbc;
 
     // Basic auth credentials (from SecurityConfig / application-test.yml)
     @Value("${app.security.user}")
      String USER;
     @Value("${app.security.password}")
      String PASSWORD;
+    @Value("${app.transactions.batch.max-size:5000}")
+    int batchMaxSize;
 
     @Test
     @DisplayName("Given a valid document number, when creating an account, then response has id + document_number only")
@@ -81,7 +88,7 @@ class ApiWebTest {
 
         // DB starts at 0.00 internally
         Account start = accountRepo.findById(accountId).orElseThrow();
-        assertEquals(new BigDecimal("0.00"), start.getAvailableBalance());
+        assertEquals(0L, start.getAvailableBalance());
 
         // When: PURCHASE 50.00 -> amount stored negative; balance -> -50.00 (DB-only)
         mockMvc.perform(post("/transactions")
@@ -94,7 +101,7 @@ class ApiWebTest {
                 .andExpect(jsonPath("$.operation_type_id").value(1));
 
         Account afterPurchase = accountRepo.findById(accountId).orElseThrow();
-        assertEquals(new BigDecimal("-50.00"), afterPurchase.getAvailableBalance());
+        assertEquals(-5000L, afterPurchase.getAvailableBalance());
 
         // When: PAYMENT 60.00 -> amount positive; balance -> 10.00 (DB-only)
         mockMvc.perform(post("/transactions")
@@ -107,11 +114,234 @@ class ApiWebTest {
                 .andExpect(jsonPath("$.operation_type_id").value(4));
 
         Account afterPayment = accountRepo.findById(accountId).orElseThrow();
-        assertEquals(new BigDecimal("10.00"), afterPayment.getAvailableBalance());
+        assertEquals(1000L, afterPayment.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Given an NDJSON batch, when posting to /transactions/batch, then each line gets its own result")
+    void givenNdjsonBatch_whenPostBatch_thenPerItemResults() throws Exception {
+        // Given
+        long accountId = createAccount("66677788899");
+        String body = String.format("""
+                {"account_id":%d,"operation_type_id":1,"amount":40.00}
+                {"account_id":%d,"operation_type_id":1,"amount":5000.00}
+                {"account_id":%d,"operation_type_id":4,"amount":15.50}
+                """, accountId, accountId, accountId);
+
+        // When / Then
+        mockMvc.perform(post("/transactions/batch")
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].transaction.amount", closeTo(-40.0, 0.0001)))
+                .andExpect(jsonPath("$.results[1].error", is("TOTAL_LIMIT_EXCEEDED")))
+                .andExpect(jsonPath("$.results[2].transaction.amount", closeTo(15.5, 0.0001)));
+
+        Account after = accountRepo.findById(accountId).orElseThrow();
+        assertEquals(-2450L, after.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Given an NDJSON batch over the size limit, when posting, then reading stops at the first item too many")
+    void givenNdjsonBatchOverMaxSize_whenPostBatch_thenBatchTooLargeBeforeTheRestIsRead() throws Exception {
+        // Given: one line more than allowed, followed by a line that would fail to parse if it were ever read
+        long accountId = createAccount("66677788800");
+        String line = String.format("{\"account_id\":%d,\"operation_type_id\":1,\"amount\":0.01}%n", accountId);
+        String body = line.repeat(batchMaxSize + 1) + "not json\n";
+
+        // When / Then
+        mockMvc.perform(post("/transactions/batch")
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("BATCH_TOO_LARGE")));
+        assertEquals(0L, accountRepo.findById(accountId).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Given a posted and a rejected transaction, when reading metrics, then phase timers and error counters move")
+    void givenPostedAndRejectedTransactions_whenReadMetrics_thenPhaseTimersAndErrorCountersRecorded() throws Exception {
+        // Given
+        long accountId = createAccount("99988877766");
+        double notFoundBefore = errorCount("ACCOUNT_NOT_FOUND");
+        long insertsBefore = meterRegistry.get("pismo.transactions.post").tag("phase", "insert").timer().count();
+
+        // When
+        mockMvc.perform(post("/transactions")
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"account_id\":%d,\"operation_type_id\":1,\"amount\":10.00}", accountId)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/transactions")
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"account_id\":987654321,\"operation_type_id\":1,\"amount\":10.00}"))
+                .andExpect(status().isBadRequest());
+
+        // Then
+        assertEquals(notFoundBefore + 1, errorCount("ACCOUNT_NOT_FOUND"));
+        for (String phase : new String[]{"account_lookup", "validation", "limit_check_and_balance_update"}) {
+            assertTrue(meterRegistry.get("pismo.transactions.post").tag("phase", phase).timer().count() > 0);
+        }
+        assertEquals(insertsBefore + 1,
+                meterRegistry.get("pismo.transactions.post").tag("phase", "insert").timer().count());
+        assertTrue(meterRegistry.find("hikaricp.connections.active").gauge() != null);
+    }
+
+    @Test
+    @DisplayName("Given an Idempotency-Key, when the same post is retried, then the original is replayed")
+    void givenIdempotencyKey_whenRetried_thenOriginalReplayedOnce() throws Exception {
+        // Given
+        long accountId = createAccount("44455566677");
+        String body = String.format("{\"account_id\":%d,\"operation_type_id\":1,\"amount\":30.00}", accountId);
+
+        // When
+        String first = mockMvc.perform(post("/transactions")
+                        .with(httpBasic(USER, PASSWORD))
+                        .header("Idempotency-Key", "api-web-idem-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        mockMvc.perform(post("/transactions")
+                        .with(httpBasic(USER, PASSWORD))
+                        .header("Idempotency-Key", "api-web-idem-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(first));
+
+        assertEquals(-3000L, accountRepo.findById(accountId).orElseThrow().getAvailableBalance());
     }
 
     // ---------- helpers ----------
 
+    private double errorCount(String code) {
+        var counter = meterRegistry.find("pismo.api.errors").tag("code", code).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+
+    @Test
+    @DisplayName("Given an account history, when exporting, then rows stream as NDJSON or CSV within the date range")
+    void givenHistory_whenExport_thenStreamsNdjsonAndCsvWithinRange() throws Exception {
+        // Given: three posts, the first back-dated to 2020
+        long accountId = createAccount("12312312399");
+        for (String body : new String[]{
+                "{\"account_id\":%d,\"operation_type_id\":1,\"amount\":10.00}",
+                "{\"account_id\":%d,\"operation_type_id\":1,\"amount\":20.00}",
+                "{\"account_id\":%d,\"operation_type_id\":4,\"amount\":5.25}"}) {
+            mockMvc.perform(post("/transactions")
+                            .with(httpBasic(USER, PASSWORD))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(String.format(body, accountId)))
+                    .andExpect(status().isCreated());
+        }
+        jdbc.update("update transactions set event_date = timestamp with time zone '2020-01-01 00:00:00+00'"
+                + " where transaction_id = (select min(transaction_id) from transactions where account_id = ?)", accountId);
+
+        // When: NDJSON from 2021 onwards
+        String ndjson = mockMvc.perform(get("/transactions/export")
+                        .with(httpBasic(USER, PASSWORD))
+                        .param("account_id", String.valueOf(accountId))
+                        .param("from", "2021-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(-20.0, om.readTree(lines[0]).get("amount").asDouble(), 0.0001);
+        assertEquals(5.25, om.readTree(lines[1]).get("amount").asDouble(), 0.0001);
+
+        // When: CSV up to 2021
+        String csv = mockMvc.perform(get("/transactions/export")
+                        .with(httpBasic(USER, PASSWORD))
+                        .param("account_id", String.valueOf(accountId))
+                        .param("format", "csv")
+                        .param("to", "2021-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] rows = csv.split("\n");
+        assertEquals(2, rows.length);
+        assertEquals("transaction_id,account_id,operation_type_id,amount,event_date", rows[0]);
+        assertTrue(rows[1].contains("," + accountId + ",1,-10.00,2020-01-01"), rows[1]);
+
+        // Unknown accounts fail before anything is streamed
+        mockMvc.perform(get("/transactions/export")
+                        .with(httpBasic(USER, PASSWORD))
+                        .param("account_id", "999999999"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Given an account with transactions, when asking for its summary and statements, then totals are grouped by operation type")
+    void givenTransactions_whenSummaryAndStatements_thenGroupedTotals() throws Exception {
+        // Given
+        long accountId = createAccount("45645645699");
+        for (String body : new String[]{
+                "{\"account_id\":%d,\"operation_type_id\":1,\"amount\":12.00}",
+                "{\"account_id\":%d,\"operation_type_id\":4,\"amount\":2.00}"}) {
+            mockMvc.perform(post("/transactions")
+                            .with(httpBasic(USER, PASSWORD))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(String.format(body, accountId)))
+                    .andExpect(status().isCreated());
+        }
+
+        // When / Then
+        mockMvc.perform(get("/accounts/{id}/summary", accountId).with(httpBasic(USER, PASSWORD)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transaction_count").value(2))
+                .andExpect(jsonPath("$.debits", closeTo(-12.0, 0.0001)))
+                .andExpect(jsonPath("$.net", closeTo(-10.0, 0.0001)))
+                .andExpect(jsonPath("$.operation_types[1].operation_type_id").value(4));
+
+        String ndjson = mockMvc.perform(get("/accounts/statements")
+                        .with(httpBasic(USER, PASSWORD))
+                        .param("from_account_id", String.valueOf(accountId))
+                        .param("to_account_id", String.valueOf(accountId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode line = om.readTree(ndjson.strip());
+        assertEquals(accountId, line.get("account_id").asLong());
+        assertEquals(2, line.get("transaction_count").asInt());
+    }
+
+    @Test
+    @DisplayName("Given a type added through the actuator endpoint, when posting with it, then it is accepted and signed")
+    void givenTypeAddedAtRuntime_whenPosting_thenItIsAccepted() throws Exception {
+        // Given
+        long accountId = createAccount("55566677788");
+        mockMvc.perform(post("/actuator/operationtypes/{id}", 903)
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Reversal\",\"credit\":true,\"limitChecked\":false,\"enabled\":true}"))
+                .andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(post("/transactions")
+                        .with(httpBasic(USER, PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"account_id\":%d,\"operation_type_id\":903,\"amount\":7.50}", accountId)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.amount", closeTo(7.5, 0.0001)));
+        mockMvc.perform(get("/actuator/operationtypes").with(httpBasic(USER, PASSWORD)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 903)].description").value("Reversal"));
+    }
+
     private long createAccount(String documentNumber) throws Exception {
         var res = mockMvc.perform(post("/accounts")
                         .with(httpBasic(USER, PASSWORD))
@@ -0,0 +1,73 @@
+package com.example.pismo.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoJsonModuleTest {
+
+    // as configured in application.yml, with and without the streaming codecs
+    final ObjectMapper databind = Jackson2ObjectMapperBuilder.json()
+            .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE).build();
+    final ObjectMapper streaming = Jackson2ObjectMapperBuilder.json()
+            .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE).modulesToInstall(new DtoJsonModule()).build();
+
+    @Test
+    void givenResponses_whenWriting_thenOutputMatchesDatabinding() throws Exception {
+        // Given
+        List<Object> values = List.of(
+                new TransactionResponse(987654L, 12345L, 1, new BigDecimal("-123.45")),
+                new TransactionResponse(null, 1L, null, new BigDecimal("1E+3")),
+                new AccountResponse(12345L, "12345678900", new BigDecimal("1000.00")),
+                new AccountResponse(1L, "quote \" and é", null));
+
+        for (Object value : values) {
+            // When
+            String expected = databind.writeValueAsString(value);
+            String actual = streaming.writeValueAsString(value);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void givenRequestBodies_whenReading_thenRecordsMatchDatabinding() throws Exception {
+        // Given: plain, reordered, coerced, partial and padded bodies
+        List<String> transactions = List.of(
+                "{\"account_id\":12345,\"operation_type_id\":1,\"amount\":123.45}",
+                "{\"amount\":10,\"operation_type_id\":4,\"account_id\":1,\"extra\":{\"a\":[1,2]}}",
+                "{\"account_id\":\"7\",\"operation_type_id\":\"2\",\"amount\":\"0.015\"}",
+                "{\"account_id\":null,\"amount\":1e2}",
+                "{}");
+        List<String> accounts = List.of(
+                "{\"document_number\":\"12345678900\",\"credit_limit\":1000.00}",
+                "{\"credit_limit\":\"5\",\"document_number\":123,\"unknown\":true}",
+                "{\"document_number\":null}");
+
+        // When / Then
+        for (String body : transactions) {
+            assertEquals(databind.readValue(body, TransactionRequest.class),
+                    streaming.readValue(body, TransactionRequest.class), body);
+        }
+        for (String body : accounts) {
+            assertEquals(databind.readValue(body, AccountCreateRequest.class),
+                    streaming.readValue(body, AccountCreateRequest.class), body);
+        }
+    }
+
+    @Test
+    void givenMalformedBodies_whenReading_thenBothReject() {
+        for (String body : List.of("[1,2]", "{\"account_id\":[1]}", "{\"operation_type_id\":99999999999}")) {
+            assertThrows(JsonProcessingException.class, () -> databind.readValue(body, TransactionRequest.class), body);
+            assertThrows(JsonProcessingException.class, () -> streaming.readValue(body, TransactionRequest.class), body);
+        }
+    }
+}
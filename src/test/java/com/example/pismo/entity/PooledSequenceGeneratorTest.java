@@ -0,0 +1,128 @@
+package com.example.pismo.entity;
+
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PooledSequenceGeneratorTest {
+    // pismo.id.allocation_size in application.yml
+    static final int BLOCK = 50;
+
+    @Autowired AccountRepository accountRepo;
+    @Autowired TransactionRepository txRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired PlatformTransactionManager txManager;
+
+    TransactionTemplate txTemplate;
+    Account account;
+
+    @BeforeEach
+    void setup() {
+        txTemplate = new TransactionTemplate(txManager);
+        account = accountRepo.save(new Account("SEQ-" + System.nanoTime(), 100_000_000L));
+    }
+
+    @Test
+    void givenMoreRowsThanOneBlock_whenSavedInOneSession_thenIdsAreUniqueAndIncreasing() {
+        // When: enough rows to cross at least three block boundaries
+        List<Long> ids = saveInOneSession(3 * BLOCK + 7);
+
+        // Then
+        assertStrictlyIncreasing(ids);
+        assertEquals(ids.size(), jdbc.queryForObject(
+                "select count(*) from transactions where account_id = ?", Integer.class, account.getId()));
+    }
+
+    @Test
+    void givenAnotherInstanceReservingABlock_whenSaving_thenNoneOfItsIdsAreReused() {
+        // Given: another instance takes the next block straight from the sequence; with the pooled optimizer a
+        // sequence value v hands out the ids v - BLOCK + 1 .. v
+        List<Long> before = saveInOneSession(BLOCK);
+        long reservedTop = jdbc.queryForObject("select nextval('transactions_seq')", Long.class);
+        long reservedBottom = reservedTop - BLOCK + 1;
+
+        // When: enough rows for this instance to fetch new blocks after it
+        List<Long> after = saveInOneSession(2 * BLOCK + 1);
+
+        // Then
+        List<Long> all = new ArrayList<>(before);
+        all.addAll(after);
+        assertStrictlyIncreasing(all);
+        for (long id : all) {
+            assertFalse(id >= reservedBottom && id <= reservedTop,
+                    () -> id + " was reserved by the other instance (" + reservedBottom + ".." + reservedTop + ")");
+        }
+    }
+
+    @Test
+    void givenConcurrentSessions_whenSaving_thenIdsAreUniqueAcrossSessionsAndIncreasingWithinEach() throws Exception {
+        // Given: 8 threads x 6 sessions x 20 rows = 960 ids, many blocks handed out while sessions interleave
+        int threads = 8, sessionsPerThread = 6, rowsPerSession = 20;
+        ConcurrentLinkedQueue<List<Long>> sessions = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int s = 0; s < sessionsPerThread; s++) sessions.add(saveInOneSession(rowsPerSession));
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(failures.isEmpty(), () -> "failures: " + failures);
+        assertEquals(threads * sessionsPerThread, sessions.size());
+        Set<Long> unique = new HashSet<>();
+        for (List<Long> ids : sessions) {
+            assertStrictlyIncreasing(ids);
+            unique.addAll(ids);
+        }
+        assertEquals(threads * sessionsPerThread * rowsPerSession, unique.size());
+    }
+
+    /** Saves {@code rows} transactions in one database transaction and returns their ids in save order. */
+    private List<Long> saveInOneSession(int rows) {
+        return txTemplate.execute(status -> {
+            List<Transaction> saved = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) saved.add(new Transaction(account, 1, -100L));
+            txRepo.saveAll(saved);
+            return saved.stream().map(Transaction::getId).toList();
+        });
+    }
+
+    private static void assertStrictlyIncreasing(List<Long> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1), "ids not increasing at " + i + ": " + ids);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pismo.outbox;
+
+import com.example.pismo.dto.TransactionEvent;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.outbox.enabled=true",
+        "app.outbox.poll-interval=50ms",
+        "app.outbox.batch-size=7"})
+@ActiveProfiles("test")
+class TransactionOutboxTest {
+
+    @Autowired TransactionService transactionService;
+    @Autowired TransactionEventSubscribers subscribers;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    void givenConcurrentPostsOnTwoAccounts_whenRelayed_thenEachAccountsEventsArriveOnceInPostingOrder()
+            throws Exception {
+        // Given: 40 posts per account from 8 threads, relayed in batches of 7
+        Account a = accountRepo.save(new Account("OUTBOX-ORDER-1", 1_000_000L));
+        Account b = accountRepo.save(new Account("OUTBOX-ORDER-2", 1_000_000L));
+        List<TransactionEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+        try (var subscription = subscribers.subscribe(event -> {
+            if (event.accountId().equals(a.getId()) || event.accountId().equals(b.getId())) received.add(event);
+        })) {
+            // When
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 80; i++) {
+                Long accountId = i % 2 == 0 ? a.getId() : b.getId();
+                int operationType = i % 5 == 0 ? 4 : 1;
+                pool.execute(() -> transactionService.post(
+                        new TransactionRequest(accountId, operationType, new BigDecimal("1.25"))));
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+            awaitTrue(() -> received.size() >= 80);
+        }
+
+        // Then: transaction ids are taken under the account's row lock, so they follow each account's posting order
+        for (Account account : List.of(a, b)) {
+            List<Long> ids = received.stream()
+                    .filter(e -> e.accountId().equals(account.getId()))
+                    .map(TransactionEvent::transactionId)
+                    .toList();
+            assertEquals(40, ids.size());
+            assertEquals(ids.stream().sorted().toList(), ids);
+            BigDecimal sum = received.stream()
+                    .filter(e -> e.accountId().equals(account.getId()))
+                    .map(TransactionEvent::amount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal balance = jdbc.queryForObject(
+                    "select available_balance from accounts where account_id = ?", BigDecimal.class, account.getId());
+            assertEquals(0, sum.compareTo(balance));
+        }
+        assertEquals(80, received.size());
+    }
+
+    @Test
+    void givenSubscriberFailsOnce_whenRelayed_thenEventIsRedelivered() {
+        // Given
+        Account account = accountRepo.save(new Account("OUTBOX-RETRY-1", 10_000L));
+        Set<Long> failedOnce = ConcurrentHashMap.newKeySet();
+        List<TransactionEvent> delivered = Collections.synchronizedList(new ArrayList<>());
+        double failuresBefore = meterRegistry.get("pismo.outbox.failures").counter().count();
+
+        try (var subscription = subscribers.subscribe(event -> {
+            if (!event.accountId().equals(account.getId())) return;
+            if (failedOnce.add(event.transactionId())) throw new IllegalStateException("downstream unavailable");
+            delivered.add(event);
+        })) {
+            // When
+            TransactionResponse posted = transactionService.post(
+                    new TransactionRequest(account.getId(), 1, new BigDecimal("12.34")));
+            awaitTrue(() -> !delivered.isEmpty());
+
+            // Then
+            TransactionEvent event = delivered.get(0);
+            assertEquals(posted.transactionId(), event.transactionId());
+            assertEquals(1, event.operationTypeId());
+            assertEquals(0, event.amount().compareTo(new BigDecimal("-12.34")));
+            assertNotNull(event.eventDate());
+        }
+        assertTrue(meterRegistry.get("pismo.outbox.failures").counter().count() > failuresBefore);
+        awaitTrue(() -> outboxRows(account.getId()) == 0);
+    }
+
+    @Test
+    void givenRejectedPost_whenRelayed_thenNoEventIsPublishedForIt() {
+        // Given: limit 50.00
+        Account account = accountRepo.save(new Account("OUTBOX-REJECT-1", 5_000L));
+        List<TransactionEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+        try (var subscription = subscribers.subscribe(event -> {
+            if (event.accountId().equals(account.getId())) received.add(event);
+        })) {
+            // When: the rejected debit is posted first, so its event would arrive before the accepted one's
+            assertThrows(BusinessException.class, () -> transactionService.post(
+                    new TransactionRequest(account.getId(), 1, new BigDecimal("50.01"))));
+            TransactionResponse accepted = transactionService.post(
+                    new TransactionRequest(account.getId(), 1, new BigDecimal("50.00")));
+            awaitTrue(() -> !received.isEmpty());
+
+            // Then
+            assertEquals(1, received.size());
+            assertEquals(accepted.transactionId(), received.get(0).transactionId());
+        }
+    }
+
+    private int outboxRows(Long accountId) {
+        return jdbc.queryForObject("select count(*) from transaction_outbox where account_id = ?",
+                Integer.class, accountId);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met within 10s");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+}
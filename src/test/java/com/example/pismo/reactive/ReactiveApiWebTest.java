@@ -0,0 +1,307 @@
+package com.example.pismo.reactive;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.service.IdempotentTransactionService;
+import com.example.pismo.service.TransactionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+class ReactiveApiWebTest {
+
+    @Autowired WebTestClient client;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired DataSource dataSource;
+    @Autowired TransactionService txService;
+    @Autowired ReactiveTransactionService reactiveTxService;
+
+    @Value("${app.security.user}")
+    String USER;
+    @Value("${app.security.password}")
+    String PASSWORD;
+
+    @Test
+    @DisplayName("Given the reactive profile, when creating an account and posting, then the contract and balances match the servlet stack")
+    void givenReactiveProfile_whenCreateAndPost_thenSameContractAndBalances() {
+        // Given
+        long accountId = createAccount("R-11122233344", "1000");
+
+        client.get().uri("/accounts/{id}", accountId)
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.account_id").isEqualTo(accountId)
+                .jsonPath("$.document_number").isEqualTo("R-11122233344")
+                .jsonPath("$.available_balance").doesNotExist();
+
+        // When: PURCHASE 50.00, then PAYMENT 60.00
+        postTransaction(accountId, 1, "50.00")
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(-50.0)
+                .jsonPath("$.account_id").isEqualTo(accountId)
+                .jsonPath("$.operation_type_id").isEqualTo(1);
+        postTransaction(accountId, 4, "60.00")
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(60.0);
+
+        // Then
+        assertEquals(0, new BigDecimal("10.00").compareTo(jdbc.queryForObject(
+                "select available_balance from accounts where account_id = ?", BigDecimal.class, accountId)));
+    }
+
+    @Test
+    @DisplayName("Given a limit of 100.00, when posts breach it or are invalid, then the servlet error codes come back")
+    void givenLimit_whenBreachedOrInvalid_thenSameErrorCodes() {
+        // Given
+        long accountId = createAccount("R-22233344455", "100");
+        postTransaction(accountId, 1, "60.00").expectStatus().isCreated();
+
+        // When / Then
+        postTransaction(accountId, 1, "50.00")
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("TOTAL_LIMIT_EXCEEDED");
+        postTransaction(987654321L, 1, "1.00")
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("ACCOUNT_NOT_FOUND");
+        postTransaction(accountId, 9, "1.00")
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("INVALID_OPERATION_TYPE");
+        postTransaction(accountId, 1, "0.001")
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("INVALID_AMOUNT");
+        client.post().uri("/transactions")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(String.format("{\"account_id\":%d,\"operation_type_id\":1}", accountId))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.amount").exists();
+        client.get().uri("/accounts/{id}", accountId)
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        assertEquals(0, new BigDecimal("-60.00").compareTo(jdbc.queryForObject(
+                "select available_balance from accounts where account_id = ?", BigDecimal.class, accountId)));
+    }
+
+    @Test
+    @DisplayName("Given posts with more than one problem, when posting on both stacks, then the same check reports first")
+    void givenSeveralProblems_whenPosted_thenSameValidationOrderAsServlet() {
+        // Given: account, then operation type, then amount is the servlet order
+        long accountId = createAccount("R-44455566677", "100");
+        long missing = 987654322L;
+        Object[][] cases = {
+                {missing, 9, "0.001"},
+                {missing, 1, "0.001"},
+                {accountId, 9, "0.001"},
+                {accountId, 1, "0.001"}};
+
+        for (Object[] c : cases) {
+            // When
+            BusinessException servlet = assertThrows(BusinessException.class, () -> txService.post(
+                    new TransactionRequest((Long) c[0], (Integer) c[1], new BigDecimal((String) c[2]))));
+
+            // Then
+            postTransaction((Long) c[0], (Integer) c[1], (String) c[2])
+                    .expectStatus().isBadRequest()
+                    .expectBody().jsonPath("$.error").isEqualTo(servlet.getCode());
+        }
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbc.queryForObject(
+                "select available_balance from accounts where account_id = ?", BigDecimal.class, accountId)));
+    }
+
+    @Test
+    @DisplayName("Given an Idempotency-Key, when the post is retried on the reactive stack, then it is posted once")
+    void givenIdempotencyKey_whenRetried_thenPostedOnceAndReplayed() {
+        // Given
+        long accountId = createAccount("R-55566677788", "100");
+        String key = "reactive-retry-" + accountId;
+        long first = postWithKey(key, accountId, "30.00")
+                .expectStatus().isCreated()
+                .expectHeader().doesNotExist("Idempotent-Replayed")
+                .expectBody(JsonNode.class).returnResult().getResponseBody().get("transaction_id").asLong();
+
+        // When: the same request again, and the same key for another amount
+        postWithKey(key, accountId, "30.00")
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                .expectBody().jsonPath("$.transaction_id").isEqualTo(first);
+        postWithKey(key, accountId, "31.00")
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("IDEMPOTENCY_KEY_REUSED");
+
+        // Then: one transaction, one key row pointing at it, and the balance moved once
+        assertEquals(1, jdbc.queryForObject("select count(*) from transactions where account_id = ?",
+                Integer.class, accountId));
+        assertEquals(first, jdbc.queryForObject(
+                "select transaction_id from idempotency_keys where idempotency_key = ?", Long.class, key));
+        assertEquals(0, new BigDecimal("-30.00").compareTo(jdbc.queryForObject(
+                "select available_balance from accounts where account_id = ?", BigDecimal.class, accountId)));
+    }
+
+    @Test
+    @DisplayName("Given another instance committing the same key meanwhile, when posting, then ours rolls back and theirs is replayed")
+    void givenKeyCommittedElsewhereMeanwhile_whenPosted_thenRolledBackAndReplayed() throws Exception {
+        // Given: another instance posted 10.00 and is about to commit its key row
+        long accountId = createAccount("R-66677788899", "100");
+        String key = "reactive-race-" + accountId;
+        TransactionRequest req = new TransactionRequest(accountId, 1, new BigDecimal("10.00"));
+        long theirs = txService.post(req).transactionId();
+        IdempotentTransactionService.Result result;
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (PreparedStatement ps = other.prepareStatement("insert into idempotency_keys (idempotency_key,"
+                    + " transaction_id, account_id, operation_type_id, amount, created_at) values (?, ?, ?, 1, -10.00, ?)")) {
+                ps.setString(1, key);
+                ps.setLong(2, theirs);
+                ps.setLong(3, accountId);
+                ps.setObject(4, OffsetDateTime.now());
+                ps.executeUpdate();
+            }
+
+            // When: our lookup misses the uncommitted row, and our key insert waits on it
+            // H2's R2DBC driver runs on the subscribing thread, so subscribe elsewhere to be able to commit here
+            CompletableFuture<IdempotentTransactionService.Result> ours = reactiveTxService.post(key, req)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .toFuture();
+            Thread.sleep(300);
+            other.commit();
+            result = ours.get(30, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertTrue(result.replayed());
+        assertEquals(theirs, result.response().transactionId());
+        assertEquals(1, jdbc.queryForObject("select count(*) from transactions where account_id = ?",
+                Integer.class, accountId));
+        assertEquals(0, new BigDecimal("-10.00").compareTo(jdbc.queryForObject(
+                "select available_balance from accounts where account_id = ?", BigDecimal.class, accountId)));
+    }
+
+    @Test
+    @DisplayName("Given the reactive profile, when calling servlet-only endpoints, then they answer SERVLET_ONLY")
+    void givenServletOnlyEndpoints_whenCalled_thenExplicitError() {
+        client.post().uri("/transactions/batch")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("SERVLET_ONLY");
+        client.get().uri("/transactions/export?account_id=1")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("SERVLET_ONLY");
+        client.get().uri("/accounts/1/summary")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("SERVLET_ONLY");
+    }
+
+    @Test
+    @DisplayName("Given posts over R2DBC and JPA, when listing, then ids never collide and pages and cursors match")
+    void givenPostsFromBothStacks_whenListing_thenUniqueIdsAndSamePaging() {
+        // Given: the sequence is shared with Hibernate's pooled optimizer
+        long accountId = createAccount("R-33344455566", "1000");
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            JsonNode posted = postTransaction(accountId, 1, "1.00")
+                    .expectStatus().isCreated()
+                    .expectBody(JsonNode.class).returnResult().getResponseBody();
+            ids.add(posted.get("transaction_id").asLong());
+            ids.add(txService.post(new TransactionRequest(accountId, 1, new BigDecimal("1.00"))).transactionId());
+        }
+        assertEquals(6, ids.size());
+
+        // When / Then
+        client.get().uri(b -> b.path("/transactions").queryParam("account_id", accountId).queryParam("size", 4).build())
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(4)
+                .jsonPath("$.total_elements").isEqualTo(6);
+
+        JsonNode slice = client.get().uri(b -> b.path("/transactions/history")
+                        .queryParam("account_id", accountId).queryParam("size", 5).build())
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertTrue(slice.get("has_next").asBoolean());
+        long last = slice.get("content").get(4).get("transaction_id").asLong();
+        assertTrue(last < slice.get("content").get(0).get("transaction_id").asLong());
+
+        client.get().uri(b -> b.path("/transactions/history").queryParam("account_id", accountId)
+                        .queryParam("cursor", slice.get("next_cursor").asText()).build())
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.has_next").isEqualTo(false);
+    }
+
+    private WebTestClient.ResponseSpec postTransaction(long accountId, int operationTypeId, String amount) {
+        return client.post().uri("/transactions")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(String.format("{\"account_id\":%d,\"operation_type_id\":%d,\"amount\":%s}",
+                        accountId, operationTypeId, amount))
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec postWithKey(String key, long accountId, String amount) {
+        return client.post().uri("/transactions")
+                .headers(h -> {
+                    h.setBasicAuth(USER, PASSWORD);
+                    h.set("Idempotency-Key", key);
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(String.format("{\"account_id\":%d,\"operation_type_id\":1,\"amount\":%s}", accountId, amount))
+                .exchange();
+    }
+
+    private long createAccount(String documentNumber, String creditLimit) {
+        JsonNode node = client.post().uri("/accounts")
+                .headers(h -> h.setBasicAuth(USER, PASSWORD))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(String.format("{\"document_number\":\"%s\",\"credit_limit\":%s}", documentNumber, creditLimit))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        return node.get("account_id").asLong();
+    }
+}
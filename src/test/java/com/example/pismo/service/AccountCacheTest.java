@@ -0,0 +1,63 @@
+package com.example.pismo.service;
+
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(AccountCache.class)
+class AccountCacheTest {
+
+    @Autowired AccountRepository accountRepo;
+    @Autowired AccountCache cache;
+    @Autowired JdbcTemplate jdbc;
+
+    Account account;
+
+    @BeforeEach
+    void setup() {
+        cache.evictAll();
+        account = accountRepo.saveAndFlush(new Account("12345678900", 100_000L));
+    }
+
+    @Test
+    void givenCachedAccount_whenRowChangesBehindTheCache_thenCachedCopyIsServed() {
+        // Given
+        cache.get(account.getId()).orElseThrow();
+
+        // When: a write that does not go through the cache
+        jdbc.update("update accounts set credit_limit = 5 where account_id = ?", account.getId());
+
+        // Then
+        assertEquals(100_000L, cache.get(account.getId()).orElseThrow().creditLimit());
+    }
+
+    @Test
+    void givenBalanceWrite_whenEvicted_thenNextReadLoadsNewBalance() {
+        // Given
+        cache.get(account.getId()).orElseThrow();
+
+        // When
+        accountRepo.applyBalanceDelta(account.getId(), -2500L);
+        cache.evict(account.getId());
+
+        // Then
+        assertEquals(-2500L, cache.get(account.getId()).orElseThrow().availableBalance());
+    }
+
+    @Test
+    void givenDocumentNumber_whenLookedUp_thenResolvesToAccountIdAndMissesAreNotCached() {
+        assertEquals(account.getId(), cache.findIdByDocumentNumber("12345678900").orElseThrow());
+        assertTrue(cache.findIdByDocumentNumber("00000000000").isEmpty());
+
+        Account later = accountRepo.saveAndFlush(new Account("00000000000", 1000L));
+        assertEquals(later.getId(), cache.findIdByDocumentNumber("00000000000").orElseThrow());
+    }
+}
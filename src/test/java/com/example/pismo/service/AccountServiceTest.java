@@ -16,7 +16,7 @@ import java.math.BigDecimal;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
-@Import(AccountService.class)
+@Import({AccountService.class, AccountCache.class})
 class AccountServiceTest {
 
     @Autowired AccountRepository accountRepo;
@@ -42,7 +42,7 @@ class AccountServiceTest {
 
         // Check balance internally from DB entity
         Account persisted = accountRepo.findById(res.accountId()).orElseThrow();
-        assertEquals(0, persisted.getAvailableBalance().compareTo(BigDecimal.ZERO));
+        assertEquals(0L, persisted.getAvailableBalance());
     }
 
 
@@ -78,10 +78,23 @@ class AccountServiceTest {
         assertTrue(ex.getMessage().contains("already exists"));
     }
 
+    @Test
+    void givenCreditLimitBeyondLongCents_whenCreateAccount_thenInvalidCreditLimit() {
+        // Given
+        BigDecimal creditLimit = new BigDecimal("1E+30");
+
+        // When + Then
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> accountService.create(new AccountCreateRequest("12312312399", creditLimit)));
+
+        assertEquals("INVALID_CREDIT_LIMIT", ex.getCode());
+        assertTrue(accountRepo.findAll().isEmpty());
+    }
+
     @Test
     void givenExistingAccountId_whenGetAccount_thenReturnsAccountResponse() {
         // Given
-        Account saved = accountRepo.save(new Account("55544433322", new BigDecimal("1000")));
+        Account saved = accountRepo.save(new Account("55544433322", 100_000L));
 
         // When
         AccountResponse response = accountService.get(saved.getId());
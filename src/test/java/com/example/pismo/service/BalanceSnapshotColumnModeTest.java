@@ -0,0 +1,57 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// balance-column mode: the default, so posting writes accounts.available_balance
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceSnapshotColumnModeTest {
+
+    @Autowired TransactionService txService;
+    @Autowired BatchTransactionService batchService;
+    @Autowired BalanceSnapshotService snapshots;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenWatermarkAdvancedByAnotherInstance_whenPostingWithLowerPooledIds_thenRefreshFindsNoMismatch() {
+        // Given: another instance, further along the id sequence, posted a debit of 10.00 and a refresh took it
+        Account account = accountRepo.save(new Account("SNAP-COLUMN-1", 100_000L));
+        long highId = jdbc.queryForObject("select coalesce(max(transaction_id), 0) from transactions", Long.class)
+                + 1_000_000;
+        jdbc.update("insert into transactions (transaction_id, account_id, operation_type_id, amount, event_date)"
+                + " values (?, ?, 1, -10.00, ?)", highId, account.getId(), OffsetDateTime.now());
+        jdbc.update("update accounts set available_balance = available_balance - 10.00 where account_id = ?",
+                account.getId());
+        snapshots.refresh(false);
+        assertEquals(highId, snapshots.position(account.getId()).lastTransactionId());
+
+        // When: this instance posts from its own, lower id block, one at a time and as a batch
+        TransactionResponse single = txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("2.50")));
+        batchService.post(List.of(
+                new TransactionRequest(account.getId(), 1, new BigDecimal("1.00")),
+                new TransactionRequest(account.getId(), 4, new BigDecimal("0.25"))));
+
+        // Then: the posts were folded into the snapshot, so the history agrees with the column and a restoring
+        // refresh leaves the column alone
+        assertTrue(single.transactionId() < highId);
+        assertEquals(-825, snapshots.position(account.getId()).balance());
+        snapshots.refresh(true);
+        assertEquals(-825, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        assertEquals(highId, snapshots.position(account.getId()).lastTransactionId());
+    }
+}
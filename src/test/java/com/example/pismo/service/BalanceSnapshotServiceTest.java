@@ -0,0 +1,109 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.ledger.append-only=true", "app.ledger.snapshots.chunk-size=7"})
+@ActiveProfiles("test")
+class BalanceSnapshotServiceTest {
+
+    @Autowired TransactionService txService;
+    @Autowired BalanceSnapshotService snapshots;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenAppendOnlyMode_whenPosting_thenColumnIsUntouchedAndLimitComesFromHistory() {
+        // Given: limit 100.00
+        Account account = accountRepo.save(new Account("SNAP-LIMIT-1", 10_000L));
+
+        // When
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("60.00")));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("50.00"))));
+
+        // Then
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+        assertEquals(0, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        assertEquals(-6_000, snapshots.position(account.getId()).balance());
+    }
+
+    @Test
+    void givenSnapshot_whenPostingAfterIt_thenBalanceIsSnapshotPlusTail() {
+        // Given
+        Account account = accountRepo.save(new Account("SNAP-TAIL-1", 100_000L));
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+        snapshots.refresh(false);
+        BalanceSnapshotService.Position taken = snapshots.position(account.getId());
+
+        // When
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("2.50")));
+
+        // Then
+        assertEquals(-1_000, taken.balance());
+        assertTrue(taken.lastTransactionId() > 0);
+        assertEquals(-750, snapshots.position(account.getId()).balance());
+        assertEquals(taken.lastTransactionId(), snapshots.position(account.getId()).lastTransactionId());
+    }
+
+    @Test
+    void givenPostWithIdBelowWatermark_whenPosting_thenItIsFoldedIntoTheSnapshot() {
+        // Given: a snapshot whose watermark is ahead of any id this post can get
+        Account account = accountRepo.save(new Account("SNAP-STRAGGLER-1", 100_000L));
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+        snapshots.refresh(false);
+        jdbc.update("update balance_snapshots set last_transaction_id = ? where account_id = ?",
+                Long.MAX_VALUE, account.getId());
+
+        // When
+        TransactionResponse straggler = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("5.00")));
+
+        // Then
+        assertTrue(straggler.transactionId() < Long.MAX_VALUE);
+        assertEquals(-1_500, snapshots.position(account.getId()).balance());
+        assertEquals(-1_500, jdbc.queryForObject("select balance from balance_snapshots where account_id = ?",
+                BigDecimal.class, account.getId()).movePointRight(2).longValueExact());
+    }
+
+    @Test
+    void givenManyAccounts_whenRefreshingWithRestore_thenEveryColumnMatchesItsHistory() {
+        // Given: more accounts than one chunk, each with a different history
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Account account = accountRepo.save(new Account("SNAP-BULK-" + i, 100_000L));
+            for (int n = 0; n <= i % 4; n++) {
+                txService.post(new TransactionRequest(account.getId(), n % 2 == 0 ? 1 : 4, new BigDecimal("1.25")));
+            }
+            accounts.add(account);
+        }
+
+        // When
+        BalanceSnapshotService.RefreshResult result = snapshots.refresh(true);
+
+        // Then
+        assertTrue(result.accounts() >= 30);
+        for (Account account : accounts) {
+            long history = snapshots.position(account.getId()).balance();
+            long column = accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance();
+            BigDecimal sum = jdbc.queryForObject("select coalesce(sum(amount), 0) from transactions where account_id = ?",
+                    BigDecimal.class, account.getId());
+            assertEquals(0, sum.movePointRight(2).longValueExact() - history);
+            assertEquals(history, column);
+        }
+        assertEquals(0, snapshots.refresh(true).restored());
+    }
+}
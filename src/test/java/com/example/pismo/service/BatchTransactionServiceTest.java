@@ -0,0 +1,98 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.BatchTransactionResponse;
+import com.example.pismo.dto.BatchTransactionResult.Status;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({BatchTransactionService.class, AccountCache.class, BalanceSnapshotService.class, OperationTypeRules.class,
+        StripedBalances.class, TransactionOutbox.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class BatchTransactionServiceTest {
+
+    @Autowired AccountRepository accountRepo;
+    @Autowired TransactionRepository txRepo;
+    @Autowired BatchTransactionService batchService;
+    @Autowired TestEntityManager em;
+
+    Account first;
+    Account second;
+
+    @BeforeEach
+    void setup() {
+        first = accountRepo.save(new Account("11111111111", 10_000L));
+        second = accountRepo.save(new Account("22222222222", 100_000L));
+    }
+
+    @Test
+    void givenMixedBatch_whenPost_thenEachItemIsReportedInSubmissionOrder() {
+        // Given: account 1 has 100.00 of limit; the third item no longer fits once the first is applied
+        List<TransactionRequest> items = List.of(
+                new TransactionRequest(first.getId(), 1, new BigDecimal("80.00")),
+                new TransactionRequest(second.getId(), 4, new BigDecimal("25.00")),
+                new TransactionRequest(first.getId(), 3, new BigDecimal("30.00")),
+                new TransactionRequest(first.getId(), 9, new BigDecimal("1.00")),
+                new TransactionRequest(999_999L, 1, new BigDecimal("1.00")),
+                new TransactionRequest(first.getId(), 1, null),
+                new TransactionRequest(first.getId(), 4, new BigDecimal("10.00")),
+                new TransactionRequest(first.getId(), 3, new BigDecimal("30.00"))
+        );
+
+        // When
+        BatchTransactionResponse res = batchService.post(items);
+
+        // Then
+        assertEquals(4, res.accepted());
+        assertEquals(4, res.rejected());
+        var r = res.results();
+        assertEquals(Status.CREATED, r.get(0).status());
+        assertEquals(new BigDecimal("-80.00"), r.get(0).transaction().amount());
+        assertEquals(new BigDecimal("25.00"), r.get(1).transaction().amount());
+        assertEquals("TOTAL_LIMIT_EXCEEDED", r.get(2).error());
+        assertEquals("INVALID_OPERATION_TYPE", r.get(3).error());
+        assertEquals("ACCOUNT_NOT_FOUND", r.get(4).error());
+        assertEquals("VALIDATION_ERROR", r.get(5).error());
+        assertEquals(Status.CREATED, r.get(6).status());
+        // the payment at index 6 frees just enough room for index 7
+        assertEquals(Status.CREATED, r.get(7).status());
+        for (int i = 0; i < r.size(); i++) assertEquals(i, r.get(i).index());
+
+        // And: balances and rows reflect only the accepted items
+        em.flush();
+        em.clear();
+        assertEquals(-10_000L, accountRepo.findById(first.getId()).orElseThrow().getAvailableBalance());
+        assertEquals(2500L, accountRepo.findById(second.getId()).orElseThrow().getAvailableBalance());
+        assertEquals(4, txRepo.count());
+        assertEquals(-3000L, txRepo.findById(r.get(7).transaction().transactionId()).orElseThrow().getAmount());
+    }
+
+    @Test
+    void givenOversizedBatch_whenPost_thenRejectedAsAWhole() {
+        List<TransactionRequest> items = Collections.nCopies(5001,
+                new TransactionRequest(first.getId(), 4, new BigDecimal("1.00")));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> batchService.post(items));
+
+        assertEquals("BATCH_TOO_LARGE", ex.getCode());
+        assertEquals(0, txRepo.count());
+    }
+}
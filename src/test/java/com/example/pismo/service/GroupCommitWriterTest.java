@@ -0,0 +1,128 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.dto.TransactionResponse;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.transactions.group-commit.enabled=true",
+        "app.transactions.group-commit.batch-size=32",
+        "app.transactions.group-commit.max-linger=20ms"})
+@ActiveProfiles("test")
+class GroupCommitWriterTest {
+
+    @Autowired GroupCommitWriter writer;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired IdempotentTransactionService idempotentService;
+    @Autowired IdempotencyKeyRepository keyRepo;
+
+    @Test
+    void givenConcurrentDebits_whenGroupCommitted_thenLimitHoldsAndPostsShareCommits() throws Exception {
+        // Given: limit 1000.00, 200 debits of 10.00 from 16 threads -> only 100 fit
+        Account account = accountRepo.save(new Account("GROUP-HOT-1", 100_000L));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        double groupsBefore = meterRegistry.get("pismo.transactions.group_commit.size").summary().count();
+
+        // When
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    writer.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+                    accepted.incrementAndGet();
+                } catch (BusinessException ex) {
+                    if ("TOTAL_LIMIT_EXCEEDED".equals(ex.getCode())) rejected.incrementAndGet();
+                    else unexpected.incrementAndGet();
+                } catch (RuntimeException ex) {
+                    unexpected.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(0, unexpected.get());
+        assertEquals(100, accepted.get());
+        assertEquals(100, rejected.get());
+        assertEquals(-100_000L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        BigDecimal sum = jdbc.queryForObject("select coalesce(sum(amount), 0) from transactions where account_id = ?",
+                BigDecimal.class, account.getId());
+        assertEquals(0, sum.compareTo(new BigDecimal("-1000.00")));
+        double groups = meterRegistry.get("pismo.transactions.group_commit.size").summary().count() - groupsBefore;
+        assertTrue(groups < 200, "posts should share commits, got " + groups + " groups");
+    }
+
+    @Test
+    void givenPaymentAfterDebit_whenGroupCommitted_thenResponsesCarrySignedAmountsAndIds() {
+        // Given
+        Account account = accountRepo.save(new Account("GROUP-SEQ-1", 10_000L));
+
+        // When
+        TransactionResponse debit = writer.post(new TransactionRequest(account.getId(), 1, new BigDecimal("80.00")));
+        TransactionResponse payment = writer.post(new TransactionRequest(account.getId(), 4, new BigDecimal("30.00")));
+
+        // Then
+        assertEquals(new BigDecimal("-80.00"), debit.amount());
+        assertEquals(new BigDecimal("30.00"), payment.amount());
+        assertNotEquals(debit.transactionId(), payment.transactionId());
+        assertEquals(-5_000L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void givenIdempotencyKey_whenPosted_thenGroupCommittedWithItsKeyAndADuplicateFailsOnlyItself() throws Exception {
+        // Given: limit 100.00, a debit of 30.00 under a key
+        Account account = accountRepo.save(new Account("GROUP-IDEM-1", 10_000L));
+        long groupsBefore = meterRegistry.get("pismo.transactions.group_commit.size").summary().count();
+        var first = idempotentService.post("group-idem-1",
+                new TransactionRequest(account.getId(), 1, new BigDecimal("30.00")));
+        assertEquals(groupsBefore + 1, meterRegistry.get("pismo.transactions.group_commit.size").summary().count());
+        assertEquals(first.response().transactionId(),
+                keyRepo.findById("group-idem-1").orElseThrow().getTransactionId());
+
+        // When: the same key reaches the writer again, as from another instance racing the first, alongside an
+        // unkeyed post (with the 20ms linger, usually in the same group)
+        CompletableFuture<TransactionResponse> other = CompletableFuture.supplyAsync(
+                () -> writer.post(new TransactionRequest(account.getId(), 1, new BigDecimal("20.00"))));
+        assertThrows(DataIntegrityViolationException.class, () -> writer.post(
+                new TransactionRequest(account.getId(), 1, new BigDecimal("30.00")), "group-idem-1"));
+
+        // Then: only the duplicate rolled back; a retry through the service replays the first post
+        assertEquals(new BigDecimal("-20.00"), other.get(10, TimeUnit.SECONDS).amount());
+        assertEquals(-5_000L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        var retry = idempotentService.post("group-idem-1",
+                new TransactionRequest(account.getId(), 1, new BigDecimal("30.00")));
+        assertTrue(retry.replayed());
+        assertEquals(first.response().transactionId(), retry.response().transactionId());
+    }
+
+    @Test
+    void givenUnknownAccount_whenPost_thenRejectedBeforeQueueing() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> writer.post(new TransactionRequest(987654321L, 1, new BigDecimal("1.00"))));
+        assertEquals("ACCOUNT_NOT_FOUND", ex.getCode());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotentTransactionServiceTest {
+
+    @Autowired IdempotentTransactionService service;
+    @Autowired AccountRepository accountRepo;
+    @Autowired IdempotencyKeyRepository keyRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenRetryWithSameKey_whenPost_thenOriginalReturnedAndBalanceMovesOnce() {
+        // Given
+        Account account = accountRepo.save(new Account("IDEM-RETRY-1", 100_000L));
+        var req = new TransactionRequest(account.getId(), 1, new BigDecimal("25.00"));
+
+        // When
+        var first = service.post("retry-1", req);
+        var second = service.post("retry-1", req);
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.response(), second.response());
+        assertEquals(-2500L, balance(account));
+        assertEquals(1, transactionCount(account));
+    }
+
+    @Test
+    void givenConcurrentDuplicates_whenPost_thenOnlyOneExecutes() throws Exception {
+        // Given
+        Account account = accountRepo.save(new Account("IDEM-CONC-1", 100_000L));
+        var req = new TransactionRequest(account.getId(), 1, new BigDecimal("10.00"));
+        Set<Long> transactionIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger executed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        // When: 16 threads released together with the same key
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 16; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    var result = service.post("conc-1", req);
+                    transactionIds.add(result.response().transactionId());
+                    if (!result.replayed()) executed.incrementAndGet();
+                } catch (Exception ex) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(0, failures.get());
+        assertEquals(1, executed.get());
+        assertEquals(1, transactionIds.size());
+        assertEquals(-1000L, balance(account));
+        assertEquals(1, transactionCount(account));
+    }
+
+    @Test
+    void givenMemoryTierForgotten_whenRetry_thenReplayedFromTable() {
+        // Given
+        Account account = accountRepo.save(new Account("IDEM-TABLE-1", 100_000L));
+        var req = new TransactionRequest(account.getId(), 4, new BigDecimal("12.34"));
+        var first = service.post("table-1", req);
+        service.forgetRecent();
+
+        // When
+        var retry = service.post("table-1", req);
+
+        // Then
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertTrue(keyRepo.existsById("table-1"));
+        assertEquals(1234L, balance(account));
+        assertEquals(1, transactionCount(account));
+    }
+
+    @Test
+    void givenKeyReusedForDifferentRequest_whenPost_thenRejected() {
+        // Given
+        Account account = accountRepo.save(new Account("IDEM-REUSE-1", 100_000L));
+        service.post("reuse-1", new TransactionRequest(account.getId(), 1, new BigDecimal("5.00")));
+
+        // When + Then
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.post("reuse-1", new TransactionRequest(account.getId(), 1, new BigDecimal("6.00"))));
+        assertEquals("IDEMPOTENCY_KEY_REUSED", ex.getCode());
+        assertEquals(1, transactionCount(account));
+    }
+
+    @Test
+    void givenRejectedPost_whenRetriedAfterPayment_thenRunsAgain() {
+        // Given: limit 100.00 and a debit of 150.00
+        Account account = accountRepo.save(new Account("IDEM-REJECT-1", 10_000L));
+        var debit = new TransactionRequest(account.getId(), 1, new BigDecimal("150.00"));
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.post("reject-1", debit));
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+
+        // When: a payment frees room and the client retries with the same key
+        service.post("reject-1-payment", new TransactionRequest(account.getId(), 4, new BigDecimal("50.00")));
+        var retry = service.post("reject-1", debit);
+
+        // Then
+        assertFalse(retry.replayed());
+        assertEquals(-10_000L, balance(account));
+    }
+
+    @Test
+    void givenBlankOrOversizedKey_whenPost_thenInvalidKey() {
+        var req = new TransactionRequest(1L, 1, new BigDecimal("1.00"));
+        assertEquals("INVALID_IDEMPOTENCY_KEY",
+                assertThrows(BusinessException.class, () -> service.post(" ", req)).getCode());
+        assertEquals("INVALID_IDEMPOTENCY_KEY",
+                assertThrows(BusinessException.class, () -> service.post("k".repeat(256), req)).getCode());
+    }
+
+    private long balance(Account account) {
+        return accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance();
+    }
+
+    private int transactionCount(Account account) {
+        return jdbc.queryForObject("select count(*) from transactions where account_id = ?",
+                Integer.class, account.getId());
+    }
+}
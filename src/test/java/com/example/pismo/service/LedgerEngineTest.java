@@ -0,0 +1,155 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import com.example.pismo.repository.IdempotencyKeyRepository;
+import com.example.pismo.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// one partition keeping two accounts, so a third account evicts the least recently used one
+@SpringBootTest(properties = {"app.ledger.engine.enabled=true", "app.ledger.engine.partitions=1",
+        "app.ledger.engine.max-accounts=2"})
+@ActiveProfiles("test")
+class LedgerEngineTest {
+
+    @Autowired LedgerEngine engine;
+    @Autowired AccountRepository accountRepo;
+    @Autowired TransactionRepository txRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired IdempotentTransactionService idempotentService;
+    @Autowired IdempotencyKeyRepository keyRepo;
+
+    @Test
+    void givenConcurrentDebitsOnHotAccount_whenPost_thenLimitIsNeverExceeded() throws Exception {
+        // Given: limit 1000.00, 200 debits of 10.00 from 8 threads -> only 100 fit
+        Account account = accountRepo.save(new Account("LEDGER-HOT-1", 100_000L));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+
+        // When
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+                    accepted.incrementAndGet();
+                } catch (BusinessException ex) {
+                    (ex.getCode().equals("TOTAL_LIMIT_EXCEEDED") ? rejected : unexpected).incrementAndGet();
+                } catch (RuntimeException ex) {
+                    unexpected.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(0, unexpected.get());
+        assertEquals(100, accepted.get());
+        assertEquals(100, rejected.get());
+        Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
+        assertEquals(-100_000L, reloaded.getAvailableBalance());
+        assertEquals(100, txRepo.findByAccountId(account.getId(), Pageable.unpaged()).getTotalElements());
+    }
+
+    @Test
+    void givenPaymentAfterDebits_whenPost_thenBalanceTracksBothInMemoryAndInDatabase() {
+        // Given
+        Account account = accountRepo.save(new Account("LEDGER-HOT-2", 10_000L));
+        engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("100.00")));
+
+        // When: limit exhausted, then a payment frees room for another debit
+        assertThrows(BusinessException.class,
+                () -> engine.post(new TransactionRequest(account.getId(), 3, new BigDecimal("0.01"))));
+        var payment = engine.post(new TransactionRequest(account.getId(), 4, new BigDecimal("40.00")));
+        engine.post(new TransactionRequest(account.getId(), 3, new BigDecimal("40.00")));
+
+        // Then
+        assertNotNull(payment.transactionId());
+        assertEquals(new BigDecimal("40.00"), payment.amount());
+        Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
+        assertEquals(-10_000L, reloaded.getAvailableBalance());
+    }
+
+    @Test
+    void givenBalanceMovedBehindTheEngine_whenDebitNoLongerFits_thenDatabaseRejectsItAndLedgerGivesItBack() {
+        // Given: limit 100.00, 10.00 spent through the engine, then 85.00 more spent behind its back
+        Account account = accountRepo.save(new Account("LEDGER-DRIFT-1", 10_000L));
+        engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+        jdbc.update("update accounts set available_balance = available_balance - 85.00 where account_id = ?",
+                account.getId());
+
+        // When: the engine still sees 90.00 of room, the conditional UPDATE does not
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("50.00"))));
+
+        // Then: the database stays within the limit, and the rejected debit no longer counts in memory
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+        assertEquals(-9_500L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        jdbc.update("update accounts set available_balance = available_balance + 85.00 where account_id = ?",
+                account.getId());
+        engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("85.00")));
+        assertEquals(-9_500L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void givenMoreAccountsThanKeptInMemory_whenPosting_thenIdleAccountsAreReadAgain() {
+        // Given: 1.00 of a 10.00 limit spent, then two other accounts push the first one out
+        Account first = accountRepo.save(new Account("LEDGER-EVICT-1", 1_000L));
+        engine.post(new TransactionRequest(first.getId(), 1, new BigDecimal("1.00")));
+        for (int i = 2; i <= 3; i++) {
+            Account other = accountRepo.save(new Account("LEDGER-EVICT-" + i, 1_000L));
+            engine.post(new TransactionRequest(other.getId(), 1, new BigDecimal("1.00")));
+        }
+        jdbc.update("update accounts set available_balance = 0 where account_id = ?", first.getId());
+
+        // When: only a reloaded balance leaves room for the whole limit
+        engine.post(new TransactionRequest(first.getId(), 1, new BigDecimal("10.00")));
+
+        // Then
+        assertEquals(-1_000L, accountRepo.findById(first.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void givenIdempotencyKey_whenPostedThroughTheEngine_thenKeyCommitsWithThePostAndADuplicateIsGivenBack() {
+        // Given: limit 100.00, a debit of 30.00 under a key
+        Account account = accountRepo.save(new Account("LEDGER-IDEM-1", 10_000L));
+        var first = idempotentService.post("ledger-idem-1",
+                new TransactionRequest(account.getId(), 1, new BigDecimal("30.00")));
+        assertEquals(first.response().transactionId(),
+                keyRepo.findById("ledger-idem-1").orElseThrow().getTransactionId());
+
+        // When: the same key reaches the engine again, as from another instance racing the first
+        assertThrows(DataIntegrityViolationException.class, () -> engine.post(
+                new TransactionRequest(account.getId(), 1, new BigDecimal("30.00")), "ledger-idem-1"));
+
+        // Then: nothing was written and the ledger gave the 30.00 back, so 70.00 still fits
+        engine.post(new TransactionRequest(account.getId(), 1, new BigDecimal("70.00")));
+        assertEquals(-10_000L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+        assertEquals(2, txRepo.findByAccountId(account.getId(), Pageable.unpaged()).getTotalElements());
+    }
+
+    @Test
+    void givenUnknownAccount_whenPost_thenAccountNotFound() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> engine.post(new TransactionRequest(987654321L, 1, new BigDecimal("1.00"))));
+        assertEquals("ACCOUNT_NOT_FOUND", ex.getCode());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OperationTypeRulesTest {
+
+    @Autowired OperationTypeRules rules;
+    @Autowired TransactionService txService;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenSeededTypes_whenResolving_thenOriginalSignsAndLimitChecksApply() {
+        // Given / When
+        OperationTypeRules.Rule purchase = rules.require(1);
+        OperationTypeRules.Rule payment = rules.require(4);
+
+        // Then
+        assertEquals(-500, purchase.signed(500));
+        assertTrue(purchase.limitChecked());
+        assertEquals(500, payment.signed(500));
+        assertFalse(payment.limitChecked());
+        for (Integer invalid : new Integer[]{null, 0, -1, 1024, Integer.MAX_VALUE}) {
+            BusinessException ex = assertThrows(BusinessException.class, () -> rules.require(invalid));
+            assertEquals("INVALID_OPERATION_TYPE", ex.getCode());
+        }
+    }
+
+    @Test
+    void givenNewCreditType_whenSaved_thenPostsUseItWithoutRestart() {
+        // Given: limit 10.00, a refund credits and skips the limit check
+        Account account = accountRepo.save(new Account("OPTYPE-REFUND-1", 1_000L));
+        rules.save(901, "Refund", true, false, true);
+
+        // When
+        var res = txService.post(new TransactionRequest(account.getId(), 901, new BigDecimal("25.00")));
+
+        // Then
+        assertEquals(901, res.operationTypeId());
+        assertEquals(0, new BigDecimal("25.00").compareTo(res.amount()));
+        assertEquals(2_500, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+
+        // and once disabled it is refused
+        rules.save(901, "Refund", true, false, false);
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 901, new BigDecimal("1.00"))));
+        assertEquals("INVALID_OPERATION_TYPE", ex.getCode());
+    }
+
+    @Test
+    void givenTypeChangedInSql_whenReloaded_thenTableFollowsDatabase() {
+        // Given: a limit-checked fee added behind the application's back
+        Account account = accountRepo.save(new Account("OPTYPE-FEE-1", 1_000L));
+        jdbc.update("delete from operation_types where operation_type_id = 902");
+        jdbc.update("insert into operation_types (operation_type_id, description, credit, limit_checked, enabled)"
+                + " values (902, 'Fee', false, true, true)");
+        assertThrows(BusinessException.class, () -> rules.require(902));
+
+        // When
+        rules.reload();
+
+        // Then
+        assertEquals(-500, rules.require(902).signed(500));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 902, new BigDecimal("10.01"))));
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+
+        jdbc.update("update operation_types set enabled = false where operation_type_id = 902");
+        rules.reload();
+        assertThrows(BusinessException.class, () -> rules.require(902));
+    }
+
+    @Test
+    void givenIdOutsideTable_whenSaving_thenRejected() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> rules.save(1024, "Too high", false, true, true));
+        assertEquals("INVALID_OPERATION_TYPE", ex.getCode());
+    }
+}
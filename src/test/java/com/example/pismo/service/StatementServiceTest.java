@@ -0,0 +1,101 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.AccountSummaryResponse;
+import com.example.pismo.dto.OperationTypeTotal;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.statements.chunk-size=3")
+@ActiveProfiles("test")
+class StatementServiceTest {
+
+    @Autowired StatementService statements;
+    @Autowired TransactionService txService;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenMixedHistory_whenSummarizing_thenTotalsPerOperationTypeWithinPeriod() {
+        // Given: two purchases, a withdrawal and a payment; one purchase back-dated to 2020
+        Account account = accountRepo.save(new Account("STMT-SUM-1", 100_000L));
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("5.50")));
+        txService.post(new TransactionRequest(account.getId(), 3, new BigDecimal("20.00")));
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("7.25")));
+        jdbc.update("update transactions set event_date = timestamp with time zone '2020-06-01 00:00:00+00'"
+                + " where transaction_id = (select min(transaction_id) from transactions where account_id = ?)",
+                account.getId());
+
+        // When
+        AccountSummaryResponse all = statements.summarize(account.getId(), null, null);
+        AccountSummaryResponse recent = statements.summarize(account.getId(),
+                OffsetDateTime.parse("2021-01-01T00:00:00Z"), null);
+
+        // Then
+        assertEquals(4, all.transactionCount());
+        assertEquals(new BigDecimal("-35.50"), all.debits());
+        assertEquals(new BigDecimal("7.25"), all.credits());
+        assertEquals(new BigDecimal("-28.25"), all.net());
+        assertEquals(List.of(
+                new OperationTypeTotal(1, 2, new BigDecimal("-15.50")),
+                new OperationTypeTotal(3, 1, new BigDecimal("-20.00")),
+                new OperationTypeTotal(4, 1, new BigDecimal("7.25"))), all.operationTypes());
+
+        assertEquals(3, recent.transactionCount());
+        assertEquals(new BigDecimal("-25.50"), recent.debits());
+        assertEquals(new OperationTypeTotal(1, 1, new BigDecimal("-5.50")), recent.operationTypes().get(0));
+    }
+
+    @Test
+    void givenAccountRange_whenRunningStatements_thenEveryAccountIsSummarizedOnce() {
+        // Given: accounts with 0..3 purchases of 1.00, more than one chunk of ids
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Account account = accountRepo.save(new Account("STMT-BULK-" + i, 100_000L));
+            for (int n = 0; n < i % 4; n++) {
+                txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("1.00")));
+            }
+            accounts.add(account);
+        }
+        long first = accounts.get(0).getId();
+        long last = accounts.get(accounts.size() - 1).getId();
+
+        // When
+        Map<Long, AccountSummaryResponse> seen = new ConcurrentHashMap<>();
+        long count = statements.statements(first, last, null, null,
+                s -> assertNull(seen.put(s.accountId(), s), "account summarized twice: " + s.accountId()));
+
+        // Then
+        assertEquals(seen.size(), count);
+        for (int i = 0; i < accounts.size(); i++) {
+            AccountSummaryResponse s = seen.get(accounts.get(i).getId());
+            assertNotNull(s);
+            assertEquals(i % 4, s.transactionCount());
+            assertEquals(BigDecimal.valueOf(-(i % 4) * 100L, 2), s.debits());
+        }
+    }
+
+    @Test
+    void givenEmptyPeriod_whenSummarizing_thenInvalidDateRange() {
+        Account account = accountRepo.save(new Account("STMT-RANGE-1", 100_000L));
+        OffsetDateTime t = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        BusinessException ex = assertThrows(BusinessException.class, () -> statements.summarize(account.getId(), t, t));
+        assertEquals("INVALID_DATE_RANGE", ex.getCode());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.BatchTransactionResult.Status;
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// compaction is triggered by the tests rather than the schedule
+@SpringBootTest(properties = {
+        "app.balances.stripes.enabled=true",
+        "app.balances.stripes.compaction.interval=PT1H"})
+@ActiveProfiles("test")
+class StripedBalancesTest {
+
+    @Autowired TransactionService txService;
+    @Autowired BatchTransactionService batchService;
+    @Autowired StripedBalances stripedBalances;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenOutboxEnabled_whenUnorderedEventsNotAccepted_thenStartupRefusesStripes() {
+        assertThrows(IllegalStateException.class, () -> new StripedBalances(jdbc, null, null, true, 64,
+                false, false, false, true, false));
+        assertDoesNotThrow(() -> new StripedBalances(jdbc, new DataSourceTransactionManager(), null, true, 64,
+                false, false, false, true, true));
+    }
+
+    @Test
+    void givenCreditsOnStripes_whenDebiting_thenLimitIsCheckedAgainstTheTotal() {
+        // Given: limit 100.00, two payments of 50.00 spread over 4 stripes
+        Account account = accountRepo.save(new Account("STRIPE-LIMIT-1", 10_000L));
+        stripedBalances.configure(account.getId(), 4);
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("50.00")));
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("50.00")));
+        assertEquals(0, rowBalance(account).compareTo(BigDecimal.ZERO));
+        assertEquals(10_000L, stripedBalances.stripedBalance(account.getId()));
+
+        // When / Then: 200.00 fits exactly, one more cent does not
+        txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("200.00")));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 3, new BigDecimal("0.01"))));
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+        assertEquals(0, totalBalance(account).compareTo(new BigDecimal("-100.00")));
+    }
+
+    @Test
+    void givenCreditsOnStripes_whenBatchDebits_thenStripesCountTowardsTheLimit() {
+        // Given: limit 10.00 and a 30.00 payment on a stripe
+        Account account = accountRepo.save(new Account("STRIPE-BATCH-1", 1_000L));
+        stripedBalances.configure(account.getId(), 2);
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("30.00")));
+
+        // When
+        var res = batchService.post(List.of(
+                new TransactionRequest(account.getId(), 1, new BigDecimal("40.00")),
+                new TransactionRequest(account.getId(), 1, new BigDecimal("0.01"))));
+
+        // Then
+        assertEquals(Status.CREATED, res.results().get(0).status());
+        assertEquals(Status.REJECTED, res.results().get(1).status());
+        assertEquals(0, totalBalance(account).compareTo(new BigDecimal("-10.00")));
+    }
+
+    @Test
+    void givenConcurrentCreditsDebitsAndCompaction_whenPosting_thenLimitHoldsAndNothingIsLost() throws Exception {
+        // Given: limit 100.00, 8 stripes; 16 threads each alternate a 5.00 payment and a 10.00 purchase
+        Account account = accountRepo.save(new Account("STRIPE-CONC-1", 10_000L));
+        stripedBalances.configure(account.getId(), 8);
+        AtomicInteger unexpected = new AtomicInteger();
+        AtomicBoolean posting = new AtomicBoolean(true);
+
+        // When: the compactor folds the stripes while posts are running
+        Thread compactor = new Thread(() -> {
+            while (posting.get()) stripedBalances.compact();
+        });
+        compactor.start();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 20; i++) {
+                    boolean credit = i % 2 == 0;
+                    try {
+                        txService.post(new TransactionRequest(account.getId(), credit ? 4 : 1,
+                                new BigDecimal(credit ? "5.00" : "10.00")));
+                    } catch (BusinessException ex) {
+                        if (!"TOTAL_LIMIT_EXCEEDED".equals(ex.getCode())) unexpected.incrementAndGet();
+                    } catch (RuntimeException ex) {
+                        unexpected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        posting.set(false);
+        compactor.join();
+
+        // Then: the row plus the stripes is the history, and never went past the limit
+        assertEquals(0, unexpected.get());
+        BigDecimal total = totalBalance(account);
+        assertEquals(0, total.compareTo(sumOfTransactions(account)));
+        assertTrue(total.compareTo(new BigDecimal("-100.00")) >= 0, "overspent: " + total);
+
+        stripedBalances.compact();
+        assertEquals(0L, stripedBalances.stripedBalance(account.getId()));
+        assertEquals(0, rowBalance(account).compareTo(total));
+    }
+
+    @Test
+    void givenStripedAccount_whenStripesSetToZero_thenFoldedAndCreditsGoToTheRow() {
+        // Given
+        Account account = accountRepo.save(new Account("STRIPE-OFF-1", 0L));
+        stripedBalances.configure(account.getId(), 3);
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("7.50")));
+
+        // When
+        stripedBalances.configure(account.getId(), 0);
+        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("2.50")));
+
+        // Then
+        assertEquals(0, stripedBalances.stripes(account.getId()));
+        assertEquals(0, rowBalance(account).compareTo(new BigDecimal("10.00")));
+        assertEquals(0, jdbc.queryForObject("select count(*) from account_balance_stripes where account_id = ?",
+                Integer.class, account.getId()));
+    }
+
+    @Test
+    void givenTooManyStripes_whenConfiguring_thenThrows() {
+        Account account = accountRepo.save(new Account("STRIPE-MAX-1", 0L));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> stripedBalances.configure(account.getId(), 65));
+        assertEquals("INVALID_STRIPES", ex.getCode());
+    }
+
+    private BigDecimal rowBalance(Account account) {
+        return jdbc.queryForObject("select available_balance from accounts where account_id = ?",
+                BigDecimal.class, account.getId());
+    }
+
+    private BigDecimal totalBalance(Account account) {
+        return rowBalance(account).add(jdbc.queryForObject(
+                "select coalesce(sum(balance), 0) from account_balance_stripes where account_id = ?",
+                BigDecimal.class, account.getId()));
+    }
+
+    private BigDecimal sumOfTransactions(Account account) {
+        return jdbc.queryForObject("select coalesce(sum(amount), 0) from transactions where account_id = ?",
+                BigDecimal.class, account.getId());
+    }
+}
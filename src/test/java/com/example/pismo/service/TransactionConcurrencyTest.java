@@ -0,0 +1,151 @@
+package com.example.pismo.service;
+
+import com.example.pismo.dto.TransactionRequest;
+import com.example.pismo.entity.Account;
+import com.example.pismo.entity.Cents;
+import com.example.pismo.exception.BusinessException;
+import com.example.pismo.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionConcurrencyTest {
+    static final int THREADS = 16;
+    static final int POSTS_PER_THREAD = 25;
+
+    @Autowired TransactionService txService;
+    @Autowired AccountRepository accountRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void givenManyThreadsDebitingOneAccount_whenPosting_thenExactlyTheLimitIsSpent() throws Exception {
+        // Given: limit 1000.00, 16 x 25 = 400 debits of 10.00 -> exactly 100 fit
+        Account account = accountRepo.save(new Account("CONC-DEBIT-1", 100_000L));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+
+        // When
+        hammer(() -> {
+            try {
+                txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+                accepted.incrementAndGet();
+            } catch (BusinessException ex) {
+                if ("TOTAL_LIMIT_EXCEEDED".equals(ex.getCode())) rejected.incrementAndGet();
+                else unexpected.incrementAndGet();
+            } catch (RuntimeException ex) {
+                unexpected.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(0, unexpected.get());
+        assertEquals(100, accepted.get());
+        assertEquals(300, rejected.get());
+        assertEquals(0, balance(account).compareTo(new BigDecimal("-1000.00")));
+        assertEquals(0, sumOfTransactions(account).compareTo(new BigDecimal("-1000.00")));
+    }
+
+    @Test
+    void givenConcurrentDebitsAndPayments_whenPosting_thenExactlyLimitPlusPaymentsIsSpent() throws Exception {
+        // Given: limit 200.00; 4 threads pay 25 x 7.00 each (700.00), so 900.00 of room -> exactly 90 debits of
+        // 10.00 fit. 12 threads debit 25 times while the payments run, then 10 times more once they all
+        // committed: those 120 are more than the room left, so the outcome does not depend on the interleaving
+        Account account = accountRepo.save(new Account("CONC-MIXED-1", 20_000L));
+        int payers = 4, debitsDuring = 25, debitsAfter = 10;
+        CountDownLatch paid = new CountDownLatch(payers);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        Runnable debit = () -> {
+            try {
+                txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
+                accepted.incrementAndGet();
+            } catch (BusinessException ex) {
+                (ex.getCode().equals("TOTAL_LIMIT_EXCEEDED") ? rejected : unexpected).incrementAndGet();
+            } catch (RuntimeException ex) {
+                unexpected.incrementAndGet();
+            }
+        };
+
+        // When
+        hammer(thread -> {
+            if (thread < payers) {
+                for (int i = 0; i < POSTS_PER_THREAD; i++) {
+                    try {
+                        txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("7.00")));
+                    } catch (RuntimeException ex) {
+                        // payments are not limit-checked, so any failure is unexpected
+                        unexpected.incrementAndGet();
+                    }
+                }
+                paid.countDown();
+                return;
+            }
+            for (int i = 0; i < debitsDuring; i++) debit.run();
+            try {
+                paid.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (int i = 0; i < debitsAfter; i++) debit.run();
+        });
+
+        // Then
+        assertEquals(0, unexpected.get());
+        assertEquals(90, accepted.get());
+        assertEquals((THREADS - payers) * (debitsDuring + debitsAfter) - 90, rejected.get());
+        assertEquals(0, balance(account).compareTo(new BigDecimal("-200.00")));
+        assertEquals(0, sumOfTransactions(account).compareTo(new BigDecimal("-200.00")));
+    }
+
+    private void hammer(Runnable post) throws InterruptedException {
+        hammer(thread -> {
+            for (int i = 0; i < POSTS_PER_THREAD; i++) post.run();
+        });
+    }
+
+    /** Runs {@code body} once on each of {@code THREADS} threads, released together; the argument is the thread index. */
+    private void hammer(IntConsumer body) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                body.accept(thread);
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+    }
+
+    private BigDecimal balance(Account account) {
+        return Cents.toDecimal(accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    private BigDecimal sumOfTransactions(Account account) {
+        return jdbc.queryForObject("select coalesce(sum(amount), 0) from transactions where account_id = ?",
+                BigDecimal.class, account.getId());
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.pismo.service;
 
+import com.example.pismo.archive.TransactionArchive;
+import com.example.pismo.archive.TransactionPartitions;
 import com.example.pismo.dto.TransactionRequest;
 import com.example.pismo.entity.Account;
 import com.example.pismo.exception.BusinessException;
+import com.example.pismo.outbox.TransactionOutbox;
 import com.example.pismo.repository.AccountRepository;
 import com.example.pismo.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.context.annotation.Import;
 
 import java.math.BigDecimal;
@@ -16,19 +22,21 @@ import java.math.BigDecimal;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
-@Import(TransactionService.class)
+@Import({TransactionService.class, AccountCache.class, BalanceSnapshotService.class, OperationTypeRules.class,
+        StripedBalances.class, TransactionOutbox.class, TransactionPartitions.class, TransactionArchive.class})
 class TransactionServiceTest {
 
     @Autowired AccountRepository accountRepo;
     @Autowired TransactionRepository txRepo;
     @Autowired TransactionService txService;
+    @Autowired TestEntityManager em;
 
     Account account;
 
     @BeforeEach
     void setup() {
-        account = accountRepo.save(new Account("12345678900", new BigDecimal("1000")));
-        assertEquals(new BigDecimal("0.00"), account.getAvailableBalance());
+        account = accountRepo.save(new Account("12345678900", 100_000L));
+        assertEquals(0L, account.getAvailableBalance());
     }
 
     @Test
@@ -41,7 +49,7 @@ class TransactionServiceTest {
 
         // And: balance decreased to -50.00
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("-50.00")));
+        assertEquals(-5000L, reloaded.getAvailableBalance());
 
     }
 
@@ -58,7 +66,7 @@ class TransactionServiceTest {
 
         // And: balance -20 + 30 = 10.00
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("10.00")));
+        assertEquals(1000L, reloaded.getAvailableBalance());
     }
 
     @Test
@@ -68,7 +76,7 @@ class TransactionServiceTest {
 
         // Then: balance -18.70
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("-18.70")));
+        assertEquals(-1870L, reloaded.getAvailableBalance());
     }
 
     @Test
@@ -82,7 +90,7 @@ class TransactionServiceTest {
 
         // And: balance is -700.00
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("-700.00")));
+        assertEquals(-70_000L, reloaded.getAvailableBalance());
     }
 
     @Test
@@ -100,18 +108,51 @@ class TransactionServiceTest {
 
         // And: balance unchanged
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("0.00")));
+        assertEquals(0L, reloaded.getAvailableBalance());
 
         // And: no transaction persisted
         assertEquals(beforeCount, txRepo.count());
     }
 
+    @Test
+    void givenDebitOneCentOverTotalLimit_whenPost_thenThrows() {
+        // Given: total limit 1000.00; the cents of the delta must take part in the check
+        // When / Then
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("1000.01"))));
+        assertEquals("TOTAL_LIMIT_EXCEEDED", ex.getCode());
+        assertEquals(0L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void givenSubCentAmount_whenPost_thenRoundedHalfUpToCents() {
+        // When
+        var res = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.005")));
+
+        // Then: same rounding the numeric(19,2) column applied
+        assertEquals(new BigDecimal("-10.01"), res.amount());
+        assertEquals(-1001L, accountRepo.findById(account.getId()).orElseThrow().getAvailableBalance());
+    }
+
+    @Test
+    void givenAmountRoundingToZeroOrOverflowingCents_whenPost_thenInvalidAmount() {
+        // When + Then
+        BusinessException zero = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("0.004"))));
+        BusinessException huge = assertThrows(BusinessException.class,
+                () -> txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal("1E20"))));
+
+        assertEquals("INVALID_AMOUNT", zero.getCode());
+        assertEquals("INVALID_AMOUNT", huge.getCode());
+        assertEquals(0, txRepo.count());
+    }
+
     @Test
     void givenRemainingLimitExactlyEnough_whenPost_thenBoundaryPasses() {
         // Given: first debit uses 990, leaving remaining limit 10
         txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("990.00")));
         Account afterFirst = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, afterFirst.getAvailableBalance().compareTo(new BigDecimal("-990.00")));
+        assertEquals(-99_000L, afterFirst.getAvailableBalance());
 
         // When: second debit exactly equals remaining limit (10.00)
         var res = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("10.00")));
@@ -121,8 +162,54 @@ class TransactionServiceTest {
 
         // And: balance becomes -1000.00 (exactly at limit)
         Account reloaded = accountRepo.findById(account.getId()).orElseThrow();
-        assertEquals(0, reloaded.getAvailableBalance().compareTo(new BigDecimal("-1000.00")));
+        assertEquals(-100_000L, reloaded.getAvailableBalance());
     }
 
+    @Test
+    void givenLongHistory_whenWalkingCursorPages_thenEveryTransactionIsSeenOnceNewestFirst() {
+        // Given: 7 payments
+        for (int i = 1; i <= 7; i++) {
+            txService.post(new TransactionRequest(account.getId(), 4, new BigDecimal(i + ".00")));
+        }
+
+        // When: pages of 3 -> 3, 3, 1
+        var first = txService.findByAccountAfterCursor(account.getId(), null, 3);
+        var second = txService.findByAccountAfterCursor(account.getId(), first.nextCursor(), 3);
+        var third = txService.findByAccountAfterCursor(account.getId(), second.nextCursor(), 3);
+
+        // Then
+        assertEquals(new BigDecimal("7.00"), first.content().get(0).amount());
+        assertTrue(first.hasNext());
+        assertEquals(new BigDecimal("4.00"), second.content().get(0).amount());
+        assertEquals(1, third.content().size());
+        assertEquals(new BigDecimal("1.00"), third.content().get(0).amount());
+        assertFalse(third.hasNext());
+        assertNull(third.nextCursor());
+    }
+
+    @Test
+    void givenPostedTransactions_whenReading_thenNothingIsLoadedIntoThePersistenceContext() {
+        // Given
+        var posted = txService.post(new TransactionRequest(account.getId(), 1, new BigDecimal("12.34")));
+        em.clear();
+
+        // When
+        var byId = txService.get(posted.transactionId());
+        var page = txService.findByAccount(account.getId(), PageRequest.of(0, 10));
+        var slice = txService.findByAccountAfterCursor(account.getId(), null, 10);
+
+        // Then
+        assertEquals(posted, byId);
+        assertEquals(posted, page.getContent().get(0));
+        assertEquals(posted, slice.content().get(0));
+        assertEquals(0, em.getEntityManager().unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().getNumberOfManagedEntities());
+    }
 
+    @Test
+    void givenTamperedCursor_whenListing_thenInvalidCursor() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> txService.findByAccountAfterCursor(account.getId(), "not-a-cursor", 10));
+        assertEquals("INVALID_CURSOR", ex.getCode());
+    }
 }